@@ -0,0 +1,711 @@
+import functions.*;
+import functions.basic.*;
+import functions.tabulated.*;
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+// Замеры производительности ввода-вывода табулированных функций.
+// Запуск: java Benchmarks [имя замера ...]; без аргументов выполняются все.
+// Каждый замер сначала прогревает JIT, затем печатает лучшее время из нескольких прогонов.
+// Замер basic-kernels с векторными ядрами (vector/functions/basic/VectorKernels.java):
+//   javac -encoding UTF-8 -d out $(find . -name '*.java' -not -path './vector/*')
+//   javac --add-modules jdk.incubator.vector -encoding UTF-8 -cp out -d out \
+//         vector/functions/basic/VectorKernels.java
+//   java --add-modules jdk.incubator.vector -cp out Benchmarks basic-kernels
+public class Benchmarks {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== ЗАМЕРЫ ПРОИЗВОДИТЕЛЬНОСТИ ===\n");
+
+        if (selected(args, "text-read")) {
+            System.out.println("--- ЧТЕНИЕ ТЕКСТОВОГО ФОРМАТА ---");
+            benchmarkTextRead();
+        }
+        if (selected(args, "text-write")) {
+            System.out.println("\n--- ЗАПИСЬ ТЕКСТОВОГО ФОРМАТА ---");
+            benchmarkTextWrite();
+        }
+        if (selected(args, "binary-read")) {
+            System.out.println("\n--- ЧТЕНИЕ БИНАРНОГО ФОРМАТА ---");
+            benchmarkBinaryRead();
+        }
+        if (selected(args, "compressed")) {
+            System.out.println("\n--- СЖАТЫЙ БИНАРНЫЙ ФОРМАТ ---");
+            benchmarkCompressed();
+        }
+        if (selected(args, "serialization")) {
+            System.out.println("\n--- СЕРИАЛИЗАЦИЯ ---");
+            benchmarkSerialization();
+        }
+        if (selected(args, "factories")) {
+            System.out.println("\n--- СОЗДАНИЕ ПО КЛАССУ ---");
+            benchmarkFactories();
+        }
+        if (selected(args, "bulk-load")) {
+            System.out.println("\n--- ЗАГРУЗКА КАТАЛОГА ---");
+            benchmarkBulkLoad();
+        }
+        if (selected(args, "tabulate")) {
+            System.out.println("\n--- ТАБУЛИРОВАНИЕ ---");
+            benchmarkTabulate();
+        }
+        if (selected(args, "basic-kernels")) {
+            System.out.println("\n--- ПАКЕТНОЕ ВЫЧИСЛЕНИЕ БАЗОВЫХ ФУНКЦИЙ ---");
+            benchmarkBasicKernels();
+        }
+    }
+
+    private static boolean selected(String[] args, String name) {
+        if (args.length == 0) return true;
+        for (String arg : args) {
+            if (arg.equals(name)) return true;
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        Object run() throws Exception;
+    }
+
+    // Лучшее время одного прогона в миллисекундах
+    private static double measure(Action action) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink = action.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink = action.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == null) {
+            throw new IllegalStateException("Замер не вернул результат");
+        }
+        return best / 1e6;
+    }
+
+    private static TabulatedFunction sampleFunction(int pointsCount) {
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = i * 0.001;
+            yValues[i] = Math.sin(xValues[i]);
+        }
+        return new PrimitiveArrayTabulatedFunction(xValues, yValues);
+    }
+
+    private static FunctionPoint[] pointsOf(TabulatedFunction function) {
+        FunctionPoint[] points = new FunctionPoint[function.getPointsCount()];
+        int i = 0;
+        for (FunctionPoint point : function) {
+            points[i++] = point;
+        }
+        return points;
+    }
+
+    // ==================== ЧТЕНИЕ ТЕКСТОВОГО ФОРМАТА ====================
+
+    private static void benchmarkTextRead() throws Exception {
+        int pointsCount = 200_000;
+        StringWriter writer = new StringWriter();
+        TabulatedFunctions.writeTabulatedFunction(sampleFunction(pointsCount), writer);
+        String text = writer.toString();
+        TabulatedFunctionFactory factory = new PrimitiveArrayTabulatedFunction.PrimitiveArrayTabulatedFunctionFactory();
+
+        TabulatedFunction legacy = LegacyTextReader.readTabulatedFunction(new StringReader(text), factory);
+        TabulatedFunction current = TabulatedFunctions.readTabulatedFunction(new StringReader(text), factory);
+        if (!legacy.equals(current)) {
+            throw new IllegalStateException("Результаты разбора не совпадают");
+        }
+
+        double legacyTime = measure(() ->
+                LegacyTextReader.readTabulatedFunction(new BufferedReader(new StringReader(text)), factory));
+        double currentTime = measure(() ->
+                TabulatedFunctions.readTabulatedFunction(new BufferedReader(new StringReader(text)), factory));
+
+        System.out.printf("%d точек, %.1f МБ текста%n", pointsCount, text.length() / 1e6);
+        System.out.printf("StreamTokenizer:       %8.2f мс%n", legacyTime);
+        System.out.printf("TabulatedTextParser:   %8.2f мс (в %.1f раза быстрее)%n",
+                currentTime, legacyTime / currentTime);
+    }
+
+    // ==================== ЗАПИСЬ ТЕКСТОВОГО ФОРМАТА ====================
+
+    private static void benchmarkTextWrite() throws Exception {
+        int pointsCount = 200_000;
+        TabulatedFunction function = new LinkedListTabulatedFunction(pointsOf(sampleFunction(pointsCount)));
+
+        StringWriter legacy = new StringWriter();
+        LegacyTextWriter.writeTabulatedFunction(function, legacy);
+        StringWriter current = new StringWriter();
+        TabulatedFunctions.writeTabulatedFunction(function, current);
+        TabulatedFunction restored = TabulatedFunctions.readTabulatedFunction(new StringReader(current.toString()));
+        if (!restored.equals(function)) {
+            throw new IllegalStateException("Записанная функция читается с другими точками");
+        }
+
+        double legacyTime = measure(() -> {
+            StringWriter out = new StringWriter(legacy.getBuffer().length());
+            LegacyTextWriter.writeTabulatedFunction(function, out);
+            return out;
+        });
+        double currentTime = measure(() -> {
+            StringWriter out = new StringWriter(legacy.getBuffer().length());
+            TabulatedFunctions.writeTabulatedFunction(function, out);
+            return out;
+        });
+
+        System.out.printf("%d точек LinkedListTabulatedFunction%n", pointsCount);
+        System.out.printf("PrintWriter + конкатенация: %8.2f мс%n", legacyTime);
+        System.out.printf("Кратчайшая запись в буфер:  %8.2f мс (в %.1f раза быстрее)%n",
+                currentTime, legacyTime / currentTime);
+    }
+
+    // ==================== ЧТЕНИЕ БИНАРНОГО ФОРМАТА ====================
+
+    private static void benchmarkBinaryRead() throws Exception {
+        int pointsCount = 1_000_000;
+        TabulatedFunction function = sampleFunction(pointsCount);
+        Path classic = Files.createTempFile("tabulated", ".bin");
+        Path versioned = Files.createTempFile("tabulated", ".tabf");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(classic)))) {
+                TabulatedFunctions.writeTabulatedFunction(function, (DataOutput) out);
+            }
+            try (FileChannel out = FileChannel.open(versioned, StandardOpenOption.WRITE)) {
+                TabulatedFunctions.writeVersionedTabulatedFunction(function, out, ByteOrder.nativeOrder());
+            }
+            TabulatedFunctionFactory factory = new PrimitiveArrayTabulatedFunction.PrimitiveArrayTabulatedFunctionFactory();
+
+            double dataInputTime = measure(() -> {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(classic)))) {
+                    return TabulatedFunctions.readTabulatedFunction((DataInput) in);
+                }
+            });
+            double channelTime = measure(() -> {
+                try (FileChannel in = FileChannel.open(classic)) {
+                    return TabulatedFunctions.readTabulatedFunction(in, factory);
+                }
+            });
+            double versionedTime = measure(() -> {
+                try (FileChannel in = FileChannel.open(versioned)) {
+                    return TabulatedFunctions.readVersionedTabulatedFunction(in, factory);
+                }
+            });
+
+            System.out.printf("%d точек, %.1f МБ%n", pointsCount, Files.size(classic) / 1e6);
+            System.out.printf("DataInputStream:              %8.2f мс%n", dataInputTime);
+            System.out.printf("FileChannel, big-endian пары: %8.2f мс%n", channelTime);
+            System.out.printf("FileChannel, столбцы %s: %8.2f мс%n", ByteOrder.nativeOrder(), versionedTime);
+        } finally {
+            Files.deleteIfExists(classic);
+            Files.deleteIfExists(versioned);
+        }
+    }
+
+    // ==================== СЖАТЫЙ БИНАРНЫЙ ФОРМАТ ====================
+
+    private static void benchmarkCompressed() throws Exception {
+        int pointsCount = 1_000_000;
+        // Гладкая функция на равномерной сетке и те же значения, округлённые
+        // до float, как у данных с датчиков с меньшей точностью
+        TabulatedFunction smooth = sampleFunction(pointsCount);
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        smooth.copyPoints(0, xValues, yValues, 0, pointsCount);
+        for (int i = 0; i < pointsCount; i++) {
+            yValues[i] = (float) yValues[i];
+        }
+        TabulatedFunction rounded = new PrimitiveArrayTabulatedFunction(xValues, yValues);
+
+        benchmarkCompressed("sin(x), double", smooth);
+        benchmarkCompressed("sin(x), float", rounded);
+    }
+
+    private static void benchmarkCompressed(String name, TabulatedFunction function) throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        TabulatedFunctions.writeTabulatedFunction(function, (DataOutput) new DataOutputStream(plain));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        TabulatedFunctions.writeCompressedTabulatedFunction(function, new DataOutputStream(compressed));
+        byte[] plainBytes = plain.toByteArray();
+        byte[] compressedBytes = compressed.toByteArray();
+        TabulatedFunctionFactory factory = new PrimitiveArrayTabulatedFunction.PrimitiveArrayTabulatedFunctionFactory();
+
+        TabulatedFunction restored = TabulatedFunctions.readCompressedTabulatedFunction(
+                new DataInputStream(new ByteArrayInputStream(compressedBytes)), factory);
+        if (!restored.equals(function)) {
+            throw new IllegalStateException("Сжатая функция читается с другими точками");
+        }
+
+        double plainTime = measure(() -> TabulatedFunctions.readTabulatedFunction(
+                (DataInput) new DataInputStream(new ByteArrayInputStream(plainBytes))));
+        double compressedTime = measure(() -> TabulatedFunctions.readCompressedTabulatedFunction(
+                new DataInputStream(new ByteArrayInputStream(compressedBytes)), factory));
+
+        int pointsCount = function.getPointsCount();
+        System.out.printf("%s, %d точек%n", name, pointsCount);
+        System.out.printf("Основной формат: %8.2f МБ, чтение %8.2f мс%n", plainBytes.length / 1e6, plainTime);
+        System.out.printf("Сжатый формат:   %8.2f МБ, чтение %8.2f мс (сжатие в %.2f раза, %.1f бит на точку, %.0f млн точек/с)%n",
+                compressedBytes.length / 1e6, compressedTime,
+                (double) plainBytes.length / compressedBytes.length,
+                8.0 * compressedBytes.length / pointsCount,
+                pointsCount / compressedTime / 1e3);
+    }
+
+    // ==================== СЕРИАЛИЗАЦИЯ ====================
+
+    private static void benchmarkSerialization() throws Exception {
+        int pointsCount = 200_000;
+        FunctionPoint[] points = pointsOf(sampleFunction(pointsCount));
+
+        benchmarkSerialization("ArrayTabulatedFunction",
+                new LegacyArrayFunction(points), new ArrayTabulatedFunction(points));
+        benchmarkSerialization("LinkedListTabulatedFunction",
+                new LegacyLinkedListFunction(points), new LinkedListTabulatedFunction(points));
+    }
+
+    private static void benchmarkSerialization(String name, Serializable legacy, TabulatedFunction current)
+            throws Exception {
+
+        byte[] legacyBytes = serialize(legacy);
+        byte[] currentBytes = serialize(current);
+        if (!current.equals(deserialize(currentBytes))) {
+            throw new IllegalStateException("Десериализованная функция отличается от исходной");
+        }
+
+        double legacyWrite = measure(() -> serialize(legacy));
+        double currentWrite = measure(() -> serialize(current));
+        double legacyRead = measure(() -> deserialize(legacyBytes));
+        double currentRead = measure(() -> deserialize(currentBytes));
+
+        System.out.printf("%s, %d точек%n", name, current.getPointsCount());
+        System.out.printf("Прежняя:    %8.2f МБ, запись %8.2f мс, чтение %8.2f мс%n",
+                legacyBytes.length / 1e6, legacyWrite, legacyRead);
+        System.out.printf("Компактная: %8.2f МБ, запись %8.2f мс, чтение %8.2f мс%n",
+                currentBytes.length / 1e6, currentWrite, currentRead);
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    // Прежнее состояние ArrayTabulatedFunction при сериализации по умолчанию:
+    // массив FunctionPoint с запасом в 10 пустых ячеек
+    private static final class LegacyArrayFunction implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final FunctionPoint[] points;
+        private final int pointsCount;
+        private final boolean interpolationSearch = false;
+
+        LegacyArrayFunction(FunctionPoint[] points) {
+            this.pointsCount = points.length;
+            this.points = java.util.Arrays.copyOf(points, points.length + 10);
+        }
+    }
+
+    // Прежняя LinkedListTabulatedFunction.writeExternal/readExternal: по одному
+    // writeDouble/readDouble на координату и добавление узлов по одному
+    public static final class LegacyLinkedListFunction implements Externalizable {
+        private static final long serialVersionUID = 1L;
+        private transient LinkedListTabulatedFunction function;
+
+        public LegacyLinkedListFunction() {
+        }
+
+        LegacyLinkedListFunction(FunctionPoint[] points) {
+            this.function = new LinkedListTabulatedFunction(points);
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeInt(function.getPointsCount());
+            for (FunctionPoint point : function) {
+                out.writeDouble(point.getX());
+                out.writeDouble(point.getY());
+            }
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            int pointsCount = in.readInt();
+            FunctionPoint[] points = new FunctionPoint[pointsCount];
+            for (int i = 0; i < pointsCount; i++) {
+                double x = in.readDouble();
+                double y = in.readDouble();
+                points[i] = new FunctionPoint(x, y);
+            }
+            function = new LinkedListTabulatedFunction(points);
+        }
+    }
+
+    // ==================== СОЗДАНИЕ ПО КЛАССУ ====================
+
+    private static void benchmarkFactories() throws Exception {
+        int calls = 1_000_000;
+        TabulatedFunctionFactory factory = new PrimitiveArrayTabulatedFunction.PrimitiveArrayTabulatedFunctionFactory();
+
+        double reflectionTime = measure(() -> {
+            Object last = null;
+            for (int i = 0; i < calls; i++) {
+                last = PrimitiveArrayTabulatedFunction.class
+                        .getConstructor(double.class, double.class, int.class).newInstance(0.0, 1.0, 2);
+            }
+            return last;
+        });
+        double classTime = measure(() -> {
+            Object last = null;
+            for (int i = 0; i < calls; i++) {
+                last = TabulatedFunctions.createTabulatedFunction(PrimitiveArrayTabulatedFunction.class, 0, 1, 2);
+            }
+            return last;
+        });
+        double customClassTime = measure(() -> {
+            Object last = null;
+            for (int i = 0; i < calls; i++) {
+                last = TabulatedFunctions.createTabulatedFunction(CustomTabulatedFunction.class, 0, 1, 2);
+            }
+            return last;
+        });
+        double factoryTime = measure(() -> {
+            Object last = null;
+            for (int i = 0; i < calls; i++) {
+                last = factory.createTabulatedFunction(0, 1, 2);
+            }
+            return last;
+        });
+
+        System.out.printf("%d созданий функции из 2 точек%n", calls);
+        System.out.printf("getConstructor + newInstance:         %8.2f мс%n", reflectionTime);
+        System.out.printf("По классу, встроенная фабрика:        %8.2f мс%n", classTime);
+        System.out.printf("По классу, MethodHandle конструктора: %8.2f мс%n", customClassTime);
+        System.out.printf("Фабрика напрямую:                     %8.2f мс%n", factoryTime);
+    }
+
+    // ==================== ЗАГРУЗКА КАТАЛОГА ====================
+
+    private static void benchmarkBulkLoad() throws Exception {
+        int filesCount = 500;
+        int pointsCount = 5_000;
+        Path directory = Files.createTempDirectory("tabulated");
+        try {
+            TabulatedFunction function = sampleFunction(pointsCount);
+            for (int i = 0; i < filesCount; i++) {
+                try (Writer out = Files.newBufferedWriter(directory.resolve("f" + i + ".txt"))) {
+                    TabulatedFunctions.writeTabulatedFunction(function, out);
+                }
+            }
+            TabulatedFunctionFactory factory = new PrimitiveArrayTabulatedFunction.PrimitiveArrayTabulatedFunctionFactory();
+            int threads = Runtime.getRuntime().availableProcessors();
+
+            TabulatedFunctionLoader.Result[] last = new TabulatedFunctionLoader.Result[2];
+            double sequentialTime = measure(() -> last[0] = new TabulatedFunctionLoader(
+                    TabulatedFunctionLoader.Format.TEXT, factory, 1).loadDirectory(directory));
+            double parallelTime = measure(() -> last[1] = new TabulatedFunctionLoader(
+                    TabulatedFunctionLoader.Format.TEXT, factory, threads).loadDirectory(directory));
+
+            System.out.printf("%d файлов по %d точек, %.1f МБ%n", filesCount, pointsCount, last[0].getBytesRead() / 1e6);
+            System.out.printf("1 поток:   %8.2f мс (%.0f файлов/с, %.1f МБ/с)%n",
+                    sequentialTime, last[0].getFilesPerSecond(), last[0].getMegabytesPerSecond());
+            System.out.printf("%d потоков: %8.2f мс (%.0f файлов/с, %.1f МБ/с)%n", threads,
+                    parallelTime, last[1].getFilesPerSecond(), last[1].getMegabytesPerSecond());
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // ==================== ТАБУЛИРОВАНИЕ ====================
+
+    private static void benchmarkTabulate() throws Exception {
+        int pointsCount = 2_000_000;
+        Function function = Functions.sum(Functions.power(new Sin(), 2),
+                Functions.composition(new Exp(), new Cos()));
+
+        double serialTime = measure(() -> TabulatedFunctions.tabulate(function, 0, 100, pointsCount));
+        double parallelTime = measure(() -> TabulatedFunctions.tabulateParallel(function, 0, 100, pointsCount));
+
+        System.out.printf("%d точек, sin^2(x) + exp(cos(x)), %d потоков%n",
+                pointsCount, ForkJoinPool.commonPool().getParallelism());
+        System.out.printf("tabulate:         %8.2f мс%n", serialTime);
+        System.out.printf("tabulateParallel: %8.2f мс%n", parallelTime);
+    }
+
+    // ==================== ПАКЕТНОЕ ВЫЧИСЛЕНИЕ БАЗОВЫХ ФУНКЦИЙ ====================
+
+    private static void benchmarkBasicKernels() throws Exception {
+        int pointsCount = 2_000_000;
+        Function[] functions = {new Sin(), new Exp(), new Log(2)};
+        double[] xs = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = 1 + i * 1e-5;
+        }
+        double[] out = new double[pointsCount];
+
+        System.out.printf("%d точек на [1; %.0f], векторные ядра: %s%n", pointsCount, xs[pointsCount - 1],
+                vectorKernelsStatus());
+        for (Function function : functions) {
+            String name = function.getClass().getSimpleName();
+            double scalarTime = measure(() -> {
+                for (int i = 0; i < pointsCount; i++) {
+                    out[i] = function.getFunctionValue(xs[i]);
+                }
+                return out;
+            });
+            double bulkTime = measure(() -> {
+                function.getFunctionValues(xs, out, 0, pointsCount);
+                return out;
+            });
+            double legacyTabulateTime = measure(() -> LegacyTabulation.tabulate(function, 1, 20, pointsCount));
+            double tabulateTime = measure(() -> TabulatedFunctions.tabulate(function, 1, 20, pointsCount));
+            double legacyIntegrateTime = measure(() -> LegacyTabulation.integrate(function, 1, 20, 1e-5));
+            double integrateTime = measure(() -> Functions.integrate(function, 1, 20, 1e-5));
+
+            System.out.printf("%-4s getFunctionValue в цикле: %8.2f мс, getFunctionValues: %8.2f мс%n",
+                    name, scalarTime, bulkTime);
+            System.out.printf("     tabulate по точкам:       %8.2f мс, пакетно:           %8.2f мс%n",
+                    legacyTabulateTime, tabulateTime);
+            System.out.printf("     integrate по точкам:      %8.2f мс, пакетно:           %8.2f мс%n",
+                    legacyIntegrateTime, integrateTime);
+        }
+
+        System.out.printf("%nРасхождение getFunctionValues с getFunctionValue (Math.*), %d случайных точек на диапазон:%n",
+                ACCURACY_POINTS);
+        printAccuracy("Sin", new Sin(), -1e3, 1e3, false);
+        printAccuracy("Sin", new Sin(), 1e3, 1e9, true);
+        printAccuracy("Cos", new Cos(), -1e3, 1e3, false);
+        printAccuracy("Cos", new Cos(), 1e3, 1e9, true);
+        printAccuracy("Tan", new Tan(), -1e3, 1e3, false);
+        printAccuracy("Tan", new Tan(), 1e3, 1e9, true);
+        printAccuracy("Exp", new Exp(), -745, 709.78, false);
+        printAccuracy("Log(e)", new Log(Math.E), 1e-300, 1e300, true);
+        printAccuracy("Log(e)", new Log(Math.E), 0.5, 2, false);
+        printAccuracy("Log(2)", new Log(2), 1e-300, 1e300, true);
+        printSpecialValues("Sin", new Sin());
+        printSpecialValues("Cos", new Cos());
+        printSpecialValues("Tan", new Tan());
+        printSpecialValues("Exp", new Exp());
+        printSpecialValues("Log(2)", new Log(2));
+    }
+
+    private static final int ACCURACY_POINTS = 10_000_000;
+    private static final int ACCURACY_BLOCK = 1024;
+    // Вызовов перед проверкой: векторные подпрограммы подставляет только C2,
+    // до компиляции каждая дорожка считается через Math.*
+    private static final int ACCURACY_WARMUP_CALLS = 20_000;
+
+    // Наибольшее расхождение в ULP на точках, равномерно распределённых
+    // на [from, to] (при logarithmic - равномерно по логарифму)
+    private static void printAccuracy(String name, Function function, double from, double to, boolean logarithmic) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] xs = new double[ACCURACY_BLOCK];
+        double[] out = new double[ACCURACY_BLOCK];
+        fillRandom(xs, random, from, to, logarithmic);
+        for (int i = 0; i < ACCURACY_WARMUP_CALLS; i++) {
+            function.getFunctionValues(xs, out, 0, xs.length);
+        }
+
+        double maxUlps = 0;
+        double worstX = 0;
+        long differing = 0;
+        for (int done = 0; done < ACCURACY_POINTS; done += xs.length) {
+            fillRandom(xs, random, from, to, logarithmic);
+            function.getFunctionValues(xs, out, 0, xs.length);
+            for (int i = 0; i < xs.length; i++) {
+                double ulps = ulps(out[i], function.getFunctionValue(xs[i]));
+                if (ulps > 0) {
+                    differing++;
+                }
+                if (ulps > maxUlps) {
+                    maxUlps = ulps;
+                    worstX = xs[i];
+                }
+            }
+        }
+        System.out.printf("%-6s [%g; %g]: наибольшее %.2f ULP%s, отличается %d точек%n",
+                name, from, to, maxUlps, maxUlps > 0 ? " (x=" + worstX + ")" : "", differing);
+    }
+
+    // NaN, бесконечности, ±0, субнормальные и крайние числа должны совпадать побитово
+    private static void printSpecialValues(String name, Function function) {
+        double[] special = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.0, -0.0,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL, 1e-310, -1e-310,
+                Double.MAX_VALUE, -Double.MAX_VALUE, 709.78, 709.79, -745.1, -745.2,
+                1, -1, Math.PI / 2, -Math.PI / 2, Math.PI};
+        // Несколько полных векторов, чтобы значения попали в векторный цикл
+        double[] xs = new double[special.length * 8];
+        double[] out = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = special[i % special.length];
+        }
+        function.getFunctionValues(xs, out, 0, xs.length);
+
+        StringBuilder mismatches = new StringBuilder();
+        for (int i = 0; i < special.length; i++) {
+            double expected = function.getFunctionValue(xs[i]);
+            if (Double.compare(out[i], expected) != 0) {
+                mismatches.append(String.format(" x=%s: %s вместо %s;", xs[i], out[i], expected));
+            }
+        }
+        System.out.printf("%-6s особые значения: %s%n", name,
+                mismatches.length() == 0 ? "совпадают" : "расходятся:" + mismatches);
+    }
+
+    private static void fillRandom(double[] xs, SplittableRandom random, double from, double to, boolean logarithmic) {
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = logarithmic ? Math.exp(random.nextDouble(Math.log(from), Math.log(to))) : random.nextDouble(from, to);
+        }
+    }
+
+    // Расхождение в единицах последнего разряда ожидаемого значения; NaN
+    // против NaN - 0, несовпадение NaN или бесконечности - бесконечность
+    private static double ulps(double actual, double expected) {
+        if (Double.compare(actual, expected) == 0) {
+            return 0;
+        }
+        if (Double.isNaN(actual) || Double.isNaN(expected) || Double.isInfinite(actual) || Double.isInfinite(expected)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.abs(actual - expected) / Math.ulp(expected);
+    }
+
+    // Условия, при которых VectorSupport подключает векторные ядра
+    private static String vectorKernelsStatus() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return "нет (запуск без --add-modules jdk.incubator.vector)";
+        }
+        try {
+            Class.forName("functions.basic.VectorKernels", false, Benchmarks.class.getClassLoader());
+            return "да";
+        } catch (ClassNotFoundException e) {
+            return "нет (не собран vector/functions/basic/VectorKernels.java)";
+        }
+    }
+
+    // Прежние tabulate и integrate: по одному вызову getFunctionValue на точку
+    private static final class LegacyTabulation {
+        static TabulatedFunction tabulate(Function f, double leftX, double rightX, int pointsCount) {
+            TabulatedFunction tabulatedFunc = TabulatedFunctions.createTabulatedFunction(leftX, rightX, pointsCount);
+
+            double step = (rightX - leftX) / (pointsCount - 1);
+            for (int i = 0; i < pointsCount; i++) {
+                double x = leftX + i * step;
+                double y = f.getFunctionValue(x);
+                if (Double.isNaN(y)) {
+                    throw new IllegalArgumentException("Функция не определена в точке x=" + x);
+                }
+                tabulatedFunc.setPointY(i, y);
+            }
+            return tabulatedFunc;
+        }
+
+        static Double integrate(Function f, double leftBound, double rightBound, double step) {
+            double integral = 0.0;
+            double currentX = leftBound;
+            while (currentX < rightBound - 1e-12) {
+                double nextX = Math.min(currentX + step, rightBound);
+                double fCurrent = f.getFunctionValue(currentX);
+                double fNext = f.getFunctionValue(nextX);
+                if (Double.isNaN(fCurrent) || Double.isNaN(fNext)) {
+                    throw new IllegalArgumentException("Функция не определена в точке x=" + currentX);
+                }
+                integral += (fCurrent + fNext) * (nextX - currentX) / 2.0;
+                currentX = nextX;
+            }
+            return integral;
+        }
+    }
+
+    // Класс вне реестра: создаётся через MethodHandle конструктора
+    public static class CustomTabulatedFunction extends PrimitiveArrayTabulatedFunction {
+        private static final long serialVersionUID = 1L;
+
+        public CustomTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            super(leftX, rightX, pointsCount);
+        }
+    }
+
+    // Прежняя реализация writeTabulatedFunction(TabulatedFunction, Writer)
+    private static final class LegacyTextWriter {
+        static void writeTabulatedFunction(TabulatedFunction function, Writer out) {
+            PrintWriter writer = new PrintWriter(out);
+            writer.print(function.getPointsCount());
+
+            for (int i = 0; i < function.getPointsCount(); i++) {
+                writer.print(" " + function.getPointX(i));
+                writer.print(" " + function.getPointY(i));
+            }
+
+            writer.println();
+            writer.flush();
+        }
+    }
+
+    // Прежняя реализация readTabulatedFunction(Reader, TabulatedFunctionFactory)
+    // через StreamTokenizer - эталон для сравнения
+    private static final class LegacyTextReader {
+        static TabulatedFunction readTabulatedFunction(Reader in, TabulatedFunctionFactory factory)
+                throws IOException {
+
+            StreamTokenizer tokenizer = new StreamTokenizer(in);
+            tokenizer.resetSyntax();
+            tokenizer.wordChars('a', 'z');
+            tokenizer.wordChars('A', 'Z');
+            tokenizer.wordChars('0', '9');
+            tokenizer.wordChars('.', '.');
+            tokenizer.wordChars('-', '-');
+            tokenizer.wordChars('_', '_');
+            tokenizer.wordChars('$', '$');
+            tokenizer.wordChars('[', '[');
+            tokenizer.wordChars(']', ']');
+            tokenizer.whitespaceChars(' ', ' ');
+            tokenizer.whitespaceChars('\t', '\t');
+            tokenizer.whitespaceChars('\n', '\n');
+            tokenizer.whitespaceChars('\r', '\r');
+
+            tokenizer.nextToken();
+            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
+                throw new IOException("Ожидалось количество точек");
+            }
+            int pointsCount = Integer.parseInt(tokenizer.sval);
+
+            FunctionPoint[] points = new FunctionPoint[pointsCount];
+            for (int i = 0; i < pointsCount; i++) {
+                tokenizer.nextToken();
+                double x = Double.parseDouble(tokenizer.sval);
+                tokenizer.nextToken();
+                double y = Double.parseDouble(tokenizer.sval);
+                points[i] = new FunctionPoint(x, y);
+            }
+
+            return factory.createTabulatedFunction(points);
+        }
+    }
+}
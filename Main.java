@@ -1,6 +1,15 @@
 import functions.*;
 import functions.basic.*;
 import functions.tabulated.*;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Main {
     public static void main(String[] args) {
@@ -23,6 +32,18 @@ public class Main {
             System.out.println("\n--- ПРОВЕРКА 4: ПЕРЕГРУЖЕННЫЕ МЕТОДЫ СЕРИАЛИЗАЦИИ ---");
             testSerialization();
 
+            // ============ ПРОВЕРКА 5: УТОЧНЕНИЕ ТАБЛИЦЫ ============
+            System.out.println("\n--- ПРОВЕРКА 5: УТОЧНЕНИЕ ТАБЛИЦЫ (refine) ---");
+            testRefine();
+
+            // ============ ПРОВЕРКА 6: КОНКУРЕНТНЫЙ ДОСТУП ============
+            System.out.println("\n--- ПРОВЕРКА 6: ЧТЕНИЕ ConcurrentTabulatedFunction ПРИ ЗАПИСИ ---");
+            testConcurrentReads();
+
+            // ============ ПРОВЕРКА 7: АРХИВ ФУНКЦИЙ ============
+            System.out.println("\n--- ПРОВЕРКА 7: АРХИВ TabulatedFunctionArchive ---");
+            testArchive();
+
         } catch (Exception e) {
             System.out.println("\n✗ ОШИБКА ВЫПОЛНЕНИЯ: " + e.getMessage());
             e.printStackTrace();
@@ -103,6 +124,265 @@ public class Main {
         System.out.println(f);
     }
 
+    // ==================== ПРОВЕРКА 5: УТОЧНЕНИЕ ====================
+
+    // Сетка после addPoint перестаёт быть равномерной: refine должен оставить
+    // прежние точки на месте и вычислить новые по функции, а не по сетке
+    private static void testRefine() throws InappropriateFunctionPointException {
+        Function square = new Function() {
+            public double getLeftDomainBorder() { return Double.NEGATIVE_INFINITY; }
+            public double getRightDomainBorder() { return Double.POSITIVE_INFINITY; }
+            public double getFunctionValue(double x) { return x * x; }
+        };
+
+        UniformGridTabulatedFunction u = new UniformGridTabulatedFunction(0, 10, 11);
+        for (int i = 0; i < u.getPointsCount(); i++) {
+            u.setPointY(i, square.getFunctionValue(u.getPointX(i)));
+        }
+        u.addPoint(new FunctionPoint(0.5, 0.25));
+        System.out.println("\n1. Сетка 0..10 из 11 точек, y = x^2, addPoint(0.5, 0.25), refine(u, x^2, 2)");
+        System.out.println("isUniform() = " + u.isUniform());
+
+        TabulatedFunction refined = TabulatedFunctions.refine(u, square, 2);
+        int moved = 0;
+        for (int i = 0; i < u.getPointsCount(); i++) {
+            if (refined.getPointX(2 * i) != u.getPointX(i)) {
+                moved++;
+            }
+        }
+        int wrong = 0;
+        for (int i = 0; i < refined.getPointsCount(); i++) {
+            double x = refined.getPointX(i);
+            if (refined.getPointY(i) != square.getFunctionValue(x)) {
+                wrong++;
+            }
+        }
+        System.out.println("Точек после уточнения: " + refined.getPointsCount());
+        System.out.println(moved == 0 ? "✓ Прежние точки остались на месте" : "✗ ОШИБКА: смещено точек: " + moved);
+        System.out.println(wrong == 0 ? "✓ Все значения равны x^2" : "✗ ОШИБКА: неверных значений: " + wrong);
+    }
+
+    // ==================== ПРОВЕРКА 6: КОНКУРЕНТНЫЙ ДОСТУП ====================
+
+    // Все точки функции лежат на прямой y = 2x, поэтому любое согласованное
+    // состояние даёт f(x) = 2x. Писатели вставляют и удаляют точки (со сдвигом
+    // и перевыделением массивов), читатели без блокировок проверяют значения:
+    // несогласованное чтение под оптимистичной меткой дало бы точку не на прямой
+    private static final int CONCURRENT_WRITES = 20_000;
+
+    private static void testConcurrentReads() throws InterruptedException {
+        ConcurrentTabulatedFunction function = new ConcurrentTabulatedFunction(0, 10, new double[] {0, 20});
+        AtomicLong reads = new AtomicLong();
+        AtomicLong violations = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        AtomicLong writerErrors = new AtomicLong();
+        CountDownLatch writersLeft = new CountDownLatch(2);
+
+        Runnable inserter = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < CONCURRENT_WRITES; i++) {
+                try {
+                    if (i % 10 == 0) {
+                        FunctionPoint[] batch = new FunctionPoint[8];
+                        for (int k = 0; k < batch.length; k++) {
+                            double x = random.nextDouble(0.001, 9.999);
+                            batch[k] = new FunctionPoint(x, 2 * x);
+                        }
+                        function.addPoints(batch);
+                    } else {
+                        double x = random.nextDouble(0.001, 9.999);
+                        function.addPoint(new FunctionPoint(x, 2 * x));
+                    }
+                    writes.incrementAndGet();
+                } catch (InappropriateFunctionPointException e) {
+                    // Совпадение X со случайной существующей точкой
+                } catch (RuntimeException e) {
+                    writerErrors.incrementAndGet();
+                }
+            }
+            writersLeft.countDown();
+        };
+        // Удаляет внутренние точки; концы отрезка [0; 10] остаются на месте.
+        // Точки удаляет только этот поток, поэтому выбранный индекс остаётся
+        // внутренним, сколько бы точек ни вставил другой писатель
+        Runnable deleter = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < CONCURRENT_WRITES; i++) {
+                try {
+                    int count = function.getPointsCount();
+                    if (count > 50) {
+                        function.deletePoint(1 + random.nextInt(count - 2));
+                        writes.incrementAndGet();
+                    } else {
+                        Thread.yield();
+                    }
+                } catch (RuntimeException e) {
+                    writerErrors.incrementAndGet();
+                }
+            }
+            writersLeft.countDown();
+        };
+        Runnable reader = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double[] xs = new double[64];
+            double[] out = new double[64];
+            while (writersLeft.getCount() > 0) {
+                try {
+                    double x = random.nextDouble(0, 10);
+                    if (!onLine(x, function.getFunctionValue(x))) {
+                        violations.incrementAndGet();
+                    }
+
+                    for (int k = 0; k < xs.length; k++) {
+                        xs[k] = random.nextDouble(0, 10);
+                    }
+                    function.getFunctionValues(xs, out, 0, xs.length);
+                    for (int k = 0; k < xs.length; k++) {
+                        if (!onLine(xs[k], out[k])) {
+                            violations.incrementAndGet();
+                        }
+                    }
+
+                    int count = function.getPointsCount();
+                    if (count < 2 || function.getLeftDomainBorder() != 0 || function.getRightDomainBorder() != 10) {
+                        violations.incrementAndGet();
+                    }
+                    // Меньше 50 точек удаляющий писатель не оставляет, так что индекс остаётся допустимым
+                    FunctionPoint point = function.getPoint(random.nextInt(Math.min(count, 50)));
+                    if (!onLine(point.getX(), point.getY())) {
+                        violations.incrementAndGet();
+                    }
+                    reads.addAndGet(xs.length + 5);
+                } catch (RuntimeException e) {
+                    violations.incrementAndGet();
+                }
+            }
+        };
+
+        Thread[] threads = {new Thread(inserter), new Thread(deleter), new Thread(reader), new Thread(reader)};
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int invalidPoints = 0;
+        double previousX = Double.NEGATIVE_INFINITY;
+        for (FunctionPoint point : function) {
+            if (point.getX() <= previousX || !onLine(point.getX(), point.getY())) {
+                invalidPoints++;
+            }
+            previousX = point.getX();
+        }
+        System.out.println("\n1. 2 писателя (addPoint, addPoints, deletePoint) и 2 читателя без блокировок");
+        System.out.printf("Записей: %d, чтений: %d, точек в конце: %d%n",
+                writes.get(), reads.get(), function.getPointsCount());
+        System.out.println(violations.get() == 0
+                ? "✓ Все прочитанные значения согласованы (y = 2x)"
+                : "✗ ОШИБКА: несогласованных чтений: " + violations.get());
+        System.out.println(writerErrors.get() == 0 && invalidPoints == 0
+                ? "✓ Итоговые точки упорядочены и лежат на прямой"
+                : "✗ ОШИБКА: сбоев записи " + writerErrors.get() + ", неверных точек " + invalidPoints);
+    }
+
+    private static boolean onLine(double x, double y) {
+        return Math.abs(y - 2 * x) <= 1e-9;
+    }
+
+    // ==================== ПРОВЕРКА 7: АРХИВ ФУНКЦИЙ ====================
+
+    private static void testArchive() throws IOException {
+        TabulatedFunction identity = TabulatedFunctions.createTabulatedFunction(0, 1, new double[] {0, 1});
+        TabulatedFunction triple = TabulatedFunctions.createTabulatedFunction(0, 1, new double[] {0, 3});
+        TabulatedFunction square = TabulatedFunctions.createTabulatedFunction(0, 2, new double[] {0, 1, 4});
+
+        Path file = Files.createTempFile("archive", ".taba");
+        Path copy = Files.createTempFile("archive-copy", ".taba");
+        Path legacy = Files.createTempFile("archive-v1", ".taba");
+        try {
+            System.out.println("\n1. Замена функции под существующим ключом:");
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.create(file)) {
+                archive.put("a", identity);
+                archive.put("b", square);
+                archive.flush();
+                archive.put("a", triple);
+            }
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.openReadOnly(file)) {
+                System.out.println("Ключи: " + archive.keys());
+                System.out.println(archive.size() == 2 && archive.get("a").equals(triple)
+                        && archive.get("b").equals(square)
+                        ? "✓ Под ключом a новая функция, ключ не повторяется"
+                        : "✗ ОШИБКА: содержимое архива " + archive.keys() + ", a = " + archive.get("a"));
+            }
+
+            System.out.println("\n2. Открытие после put без flush (копия файла как при сбое):");
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.create(file)) {
+                archive.put("a", identity);
+                archive.flush();
+                archive.put("b", square);
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+
+                try (TabulatedFunctionArchive reader = TabulatedFunctionArchive.openReadOnly(file)) {
+                    System.out.println(reader.keys().equals(Set.of("a")) && reader.get("a").equals(identity)
+                            ? "✓ До flush архив читается в состоянии последнего flush: " + reader.keys()
+                            : "✗ ОШИБКА: до flush видны ключи " + reader.keys());
+                }
+            }
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.openReadOnly(file)) {
+                System.out.println(archive.keys().equals(Set.of("a", "b"))
+                        ? "✓ После close() видны обе записи: " + archive.keys()
+                        : "✗ ОШИБКА: после close() ключи " + archive.keys());
+            }
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(copy)) {
+                archive.put("c", triple);
+            }
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.openReadOnly(copy)) {
+                System.out.println(archive.keys().equals(Set.of("a", "c")) && archive.get("c").equals(triple)
+                        ? "✓ Копия с недописанной записью открывается и дополняется: " + archive.keys()
+                        : "✗ ОШИБКА: в копии ключи " + archive.keys());
+            }
+
+            System.out.println("\n3. Архив версии 1:");
+            writeLegacyArchive(legacy, "old", identity);
+            try {
+                TabulatedFunctionArchive.open(legacy).close();
+                System.out.println("✗ ОШИБКА: архив версии 1 открыт для записи");
+            } catch (IOException e) {
+                System.out.println("✓ Ожидаемая ошибка при открытии для записи: " + e.getMessage());
+            }
+            try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.openReadOnly(legacy)) {
+                System.out.println(archive.get("old").equals(identity)
+                        ? "✓ Для чтения открывается: " + archive.keys()
+                        : "✗ ОШИБКА: прочитано " + archive.get("old"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(copy);
+            Files.deleteIfExists(legacy);
+        }
+    }
+
+    // Архив версии 1 из одной записи: сигнатура и версия, запись, индекс и
+    // хвост (смещение индекса, количество записей, сигнатура) в конце файла
+    private static void writeLegacyArchive(Path file, String key, TabulatedFunction function) throws IOException {
+        int magic = 0x54414241;
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(magic);
+            out.writeInt(1);
+            long offset = out.size();
+            TabulatedFunctions.writeTabulatedFunction(function, out);
+            long length = out.size() - offset;
+            long indexOffset = out.size();
+            out.writeUTF(key);
+            out.writeLong(offset);
+            out.writeLong(length);
+            out.writeLong(indexOffset);
+            out.writeInt(1);
+            out.writeInt(magic);
+        }
+    }
+
     private static void testSerialization() {
 
         functions.TabulatedFunctionFactory arrayFactory =
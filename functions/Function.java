@@ -1,7 +1,21 @@
 package functions;
 
+import java.util.Objects;
+
 public interface Function {
     double getLeftDomainBorder();
     double getRightDomainBorder();
     double getFunctionValue(double x);
+
+    // Пакетное вычисление: out[i] = f(xs[i]) для i из [from, to); xs и out должны
+    // быть разными массивами. Реализации переопределяют метод, чтобы не повторять
+    // для каждой точки виртуальный вызов, проверку области определения и поиск отрезка
+    default void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        for (int i = from; i < to; i++) {
+            out[i] = getFunctionValue(xs[i]);
+        }
+    }
 }
\ No newline at end of file
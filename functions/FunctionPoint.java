@@ -54,6 +54,11 @@ public class FunctionPoint implements Serializable, Cloneable {
 
     @Override
     public int hashCode() {
+        return hashCode(x, y);
+    }
+
+    // Хэш-код точки (x; y) без создания объекта FunctionPoint
+    public static int hashCode(double x, double y) {
         long xScaled = Math.round(x * 1e8);
         long yScaled = Math.round(y * 1e8);
 
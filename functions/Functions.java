@@ -3,6 +3,8 @@ package functions;
 import functions.meta.*;
 
 public final class Functions {
+    // Количество узлов, вычисляемых одним пакетным вызовом при интегрировании
+    private static final int INTEGRATION_BLOCK_POINTS = 1024;
 
     private Functions() {
         throw new UnsupportedOperationException("Нельзя создавать экземпляры утилитного класса");
@@ -87,34 +89,53 @@ public final class Functions {
             );
         }
 
+        // Табулированная функция вычисляется через курсор: точки интегрирования
+        // идут по возрастанию, и поиск отрезка продолжается с предыдущего
+        if (f instanceof TabulatedFunction) {
+            f = ((TabulatedFunction) f).evaluator();
+        }
+
         double integral = 0.0;
         double currentX = leftBound;
         final double EPSILON = 1e-12;
 
-        // Основной цикл интегрирования
-        while (currentX < rightBound - EPSILON) {
-            double nextX = Math.min(currentX + step, rightBound);
-
-            double fCurrent = f.getFunctionValue(currentX);
-            double fNext = f.getFunctionValue(nextX);
+        // Основной цикл интегрирования. Узлы набираются блоками и вычисляются
+        // пакетным getFunctionValues, каждый узел - один раз; значение в
+        // последнем узле блока переходит в следующий блок. Узлы, значения и
+        // порядок суммирования те же, что при поточечном обходе
+        double[] xs = new double[INTEGRATION_BLOCK_POINTS + 1];
+        double[] ys = new double[INTEGRATION_BLOCK_POINTS + 1];
+        xs[0] = currentX;
+        ys[0] = f.getFunctionValue(currentX);
+        if (Double.isNaN(ys[0])) {
+            throw new IllegalArgumentException(
+                    String.format("Функция не определена в точке x=%.6f", currentX)
+            );
+        }
 
-            // Проверка на корректность значений функции
-            if (Double.isNaN(fCurrent)) {
-                throw new IllegalArgumentException(
-                        String.format("Функция не определена в точке x=%.6f", currentX)
-                );
+        while (currentX < rightBound - EPSILON) {
+            int count = 0;
+            while (count < INTEGRATION_BLOCK_POINTS && currentX < rightBound - EPSILON) {
+                currentX = Math.min(currentX + step, rightBound);
+                xs[++count] = currentX;
             }
-            if (Double.isNaN(fNext)) {
-                throw new IllegalArgumentException(
-                        String.format("Функция не определена в точке x=%.6f", nextX)
-                );
+            f.getFunctionValues(xs, ys, 1, count + 1);
+
+            for (int i = 1; i <= count; i++) {
+                // Проверка на корректность значений функции
+                if (Double.isNaN(ys[i])) {
+                    throw new IllegalArgumentException(
+                            String.format("Функция не определена в точке x=%.6f", xs[i])
+                    );
+                }
+
+                // Площадь трапеции
+                double trapezoidArea = (ys[i - 1] + ys[i]) * (xs[i] - xs[i - 1]) / 2.0;
+                integral += trapezoidArea;
             }
 
-            // Площадь трапеции
-            double trapezoidArea = (fCurrent + fNext) * (nextX - currentX) / 2.0;
-            integral += trapezoidArea;
-
-            currentX = nextX;
+            xs[0] = xs[count];
+            ys[0] = ys[count];
         }
 
         return integral;
@@ -1,6 +1,10 @@
 package functions;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Objects;
 
 public interface TabulatedFunction extends Function, Serializable, Iterable<FunctionPoint>, Cloneable {
     int getPointsCount();
@@ -12,4 +16,66 @@ public interface TabulatedFunction extends Function, Serializable, Iterable<Func
     void setPointY(int index, double y);
     void deletePoint(int index);
     void addPoint(FunctionPoint point) throws InappropriateFunctionPointException;
+
+    // Пакетное добавление (слияние) точек. Пакет упорядочивается по X, из точек
+    // пакета с совпадающим X остаётся последняя. Если X точки пакета совпадает с
+    // X существующей точки, выбрасывается исключение и функция не изменяется.
+    // Реализации сливают пакет с хранилищем за один проход: O(n + m log m)
+    default void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        FunctionPoint[] batch = sortedDistinct(points);
+
+        // Проверка совпадений до изменения функции: слияние двух упорядоченных последовательностей
+        Iterator<FunctionPoint> existing = iterator();
+        FunctionPoint current = existing.hasNext() ? existing.next() : null;
+        for (FunctionPoint point : batch) {
+            while (current != null && current.getX() - point.getX() <= -1e-10) {
+                current = existing.hasNext() ? existing.next() : null;
+            }
+            if (current != null && Math.abs(current.getX() - point.getX()) < 1e-10) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
+        }
+
+        for (FunctionPoint point : batch) {
+            addPoint(point);
+        }
+    }
+
+    // Копия пакета точек, упорядоченная по X, без повторов X (остаётся последняя точка)
+    static FunctionPoint[] sortedDistinct(FunctionPoint[] points) {
+        FunctionPoint[] sorted = points.clone();
+        Arrays.sort(sorted, Comparator.comparingDouble(FunctionPoint::getX));
+
+        int count = 0;
+        for (FunctionPoint point : sorted) {
+            if (count > 0 && Math.abs(point.getX() - sorted[count - 1].getX()) < 1e-10) {
+                sorted[count - 1] = point;
+            } else {
+                sorted[count++] = point;
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    // Копирование координат length точек, начиная с точки from, в массивы
+    // xValues и yValues с позиции offset. Реализации читают хранилище напрямую,
+    // без поиска каждой точки по индексу и без создания FunctionPoint
+    default void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, getPointsCount());
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+
+        for (int i = 0; i < length; i++) {
+            xValues[offset + i] = getPointX(from + i);
+            yValues[offset + i] = getPointY(from + i);
+        }
+    }
+
+    // Вычислитель значений, запоминающий последний найденный отрезок, чтобы при
+    // монотонном обходе (интегрирование, построение графиков) продолжать поиск
+    // с него. Хранит состояние, поэтому должен использоваться одним потоком.
+    // Реализации без выигрыша от подсказки возвращают саму функцию
+    default Function evaluator() {
+        return this;
+    }
 }
\ No newline at end of file
@@ -4,4 +4,25 @@ public interface TabulatedFunctionFactory {
     TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount);
     TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values);
     TabulatedFunction createTabulatedFunction(FunctionPoint[] points);
-}
\ No newline at end of file
+
+    // Создание по массивам координат X и Y. Фабрики с примитивным хранилищем
+    // переопределяют метод, чтобы не создавать промежуточные объекты FunctionPoint
+    default TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues.length != yValues.length) {
+            throw new IllegalArgumentException("Массивы X и Y должны быть одинаковой длины");
+        }
+
+        FunctionPoint[] points = new FunctionPoint[xValues.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new FunctionPoint(xValues[i], yValues[i]);
+        }
+        return createTabulatedFunction(points);
+    }
+
+    // Класс создаваемых функций. По нему реестр TabulatedFunctionFactories
+    // сопоставляет фабрику, найденную через ServiceLoader, с классом функций.
+    // По умолчанию определяется по пробной функции из двух точек
+    default Class<? extends TabulatedFunction> getTabulatedFunctionClass() {
+        return createTabulatedFunction(0, 1, 2).getClass();
+    }
+}
@@ -0,0 +1,17 @@
+package functions.basic;
+
+// Пакетные ядра базовых функций, подключаемые через VectorSupport.
+// Контракт тот же, что у Function.getFunctionValues: out[i] = f(xs[i])
+// для i из [from, to); границы уже проверены вызывающим
+interface BasicKernels {
+    void sin(double[] xs, double[] out, int from, int to);
+
+    void cos(double[] xs, double[] out, int from, int to);
+
+    void tan(double[] xs, double[] out, int from, int to);
+
+    void exp(double[] xs, double[] out, int from, int to);
+
+    // log(x) / logBase, при x <= 0 - NaN
+    void log(double[] xs, double[] out, int from, int to, double logBase);
+}
@@ -1,6 +1,7 @@
 package functions.basic;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Exp implements Function {
 
@@ -18,4 +19,33 @@ public class Exp implements Function {
     public double getFunctionValue(double x) {
         return Math.exp(x);
     }
+
+    // Функция без параметров: все экземпляры класса задают одну функцию
+    @Override
+    public boolean equals(Object o) {
+        return o != null && o.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // Пакетное вычисление без виртуального вызова на точку: векторное, если
+    // подключены векторные ядра (см. VectorSupport), иначе
+    // цикл, побитово совпадающий с Math.exp(x)
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        BasicKernels kernels = VectorSupport.KERNELS;
+        if (kernels != null) {
+            kernels.exp(xs, out, from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = Math.exp(xs[i]);
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package functions.basic;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Log implements Function {
     private double base;
@@ -33,4 +34,36 @@ public class Log implements Function {
     public double getBase() {
         return base;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != getClass()) return false;
+        return Double.compare(base, ((Log) o).base) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(base);
+    }
+
+    // Пакетное вычисление: логарифм основания считается один раз на массив.
+    // Векторное, если подключены векторные ядра (см. VectorSupport), иначе
+    // значения побитово совпадают с getFunctionValue
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double logBase = Math.log(base);
+        BasicKernels kernels = VectorSupport.KERNELS;
+        if (kernels != null) {
+            kernels.log(xs, out, from, to, logBase);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            out[i] = x <= 0 ? Double.NaN : Math.log(x) / logBase;
+        }
+    }
 }
\ No newline at end of file
@@ -1,9 +1,29 @@
 package functions.basic;
 
+import java.util.Objects;
+
 public class Sin extends TrigonometricFunction {
 
     @Override
     public double getFunctionValue(double x) {
         return Math.sin(x);
     }
+
+    // Пакетное вычисление без виртуального вызова на точку: векторное, если
+    // подключены векторные ядра (см. VectorSupport), иначе
+    // цикл, побитово совпадающий с Math.sin(x)
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        BasicKernels kernels = VectorSupport.KERNELS;
+        if (kernels != null) {
+            kernels.sin(xs, out, from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = Math.sin(xs[i]);
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package functions.basic;
 
+import java.util.Objects;
+
 public class Tan extends TrigonometricFunction {
 
     @Override
@@ -10,4 +12,24 @@ public class Tan extends TrigonometricFunction {
         }
         return Math.tan(x);
     }
+
+    // Пакетное вычисление с той же проверкой полюсов, что у getFunctionValue:
+    // векторное, если подключены векторные ядра (см. VectorSupport), иначе
+    // цикл, побитово совпадающий с Math.tan
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        BasicKernels kernels = VectorSupport.KERNELS;
+        if (kernels != null) {
+            kernels.tan(xs, out, from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            double remainder = Math.abs(x % Math.PI);
+            out[i] = Math.abs(remainder - Math.PI/2) < 1e-10 ? Double.NaN : Math.tan(x);
+        }
+    }
 }
\ No newline at end of file
@@ -13,4 +13,15 @@ public abstract class TrigonometricFunction implements Function {
     public double getRightDomainBorder() {
         return Double.POSITIVE_INFINITY;
     }
+
+    // Функция без параметров: все экземпляры класса задают одну функцию
+    @Override
+    public boolean equals(Object o) {
+        return o != null && o.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
\ No newline at end of file
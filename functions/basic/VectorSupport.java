@@ -0,0 +1,27 @@
+package functions.basic;
+
+// Необязательные векторные ядра базовых функций. Класс VectorKernels лежит
+// в отдельном каталоге исходников vector/ и собирается отдельно, с модулем
+// jdk.incubator.vector; основная сборка его не требует. Ядра загружаются
+// рефлексивно, только если модуль подключён при запуске (--add-modules
+// jdk.incubator.vector) и класс найден в classpath. Иначе KERNELS равно null
+// и базовые функции считают прежними циклами над Math.*
+final class VectorSupport {
+    static final BasicKernels KERNELS = load();
+
+    private VectorSupport() {
+    }
+
+    private static BasicKernels load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (BasicKernels) Class.forName("functions.basic.VectorKernels", true,
+                    VectorSupport.class.getClassLoader()).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Модуль есть, но ядра не собраны или не инициализировались
+            return null;
+        }
+    }
+}
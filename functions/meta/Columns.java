@@ -0,0 +1,29 @@
+package functions.meta;
+
+import functions.Function;
+import java.util.Arrays;
+
+// Вспомогательные методы для пакетного вычисления мета-функций по столбцам:
+// каждая составляющая функция вычисляется сразу на всём массиве аргументов
+final class Columns {
+
+    private Columns() {
+        throw new UnsupportedOperationException("Нельзя создавать экземпляры утилитного класса");
+    }
+
+    // Значения f в точках xs[from..to), записанные в новый массив начиная с индекса 0
+    static double[] evaluate(Function f, double[] xs, int from, int to) {
+        int length = to - from;
+        double[] args = from == 0 ? xs : Arrays.copyOfRange(xs, from, to);
+        double[] values = new double[length];
+        f.getFunctionValues(args, values, 0, length);
+        return values;
+    }
+
+    // Значения f в точках args[0..args.length)
+    static double[] evaluate(Function f, double[] args) {
+        double[] values = new double[args.length];
+        f.getFunctionValues(args, values, 0, args.length);
+        return values;
+    }
+}
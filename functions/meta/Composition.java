@@ -1,6 +1,8 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class Composition implements Function {
     private Function outer, inner;
@@ -39,4 +41,47 @@ public class Composition implements Function {
 
         return outer.getFunctionValue(innerValue);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+
+        double outerLeft = outer.getLeftDomainBorder();
+        double outerRight = outer.getRightDomainBorder();
+
+        double[] innerValues = Columns.evaluate(inner, xs, from, to);
+
+        // Аргументы, недопустимые для внешней функции, заменяются первым допустимым,
+        // чтобы внешняя функция не вызывалась вне области определения
+        boolean[] valid = new boolean[innerValues.length];
+        double substitute = Double.NaN;
+        for (int j = 0; j < innerValues.length; j++) {
+            double x = xs[from + j];
+            double innerValue = innerValues[j];
+            valid[j] = !(x < left || x > right) && !Double.isNaN(innerValue) &&
+                    innerValue >= outerLeft && innerValue <= outerRight;
+            if (valid[j] && Double.isNaN(substitute)) {
+                substitute = innerValue;
+            }
+        }
+
+        if (Double.isNaN(substitute)) {
+            Arrays.fill(out, from, to, Double.NaN);
+            return;
+        }
+        for (int j = 0; j < innerValues.length; j++) {
+            if (!valid[j]) {
+                innerValues[j] = substitute;
+            }
+        }
+
+        double[] outerValues = Columns.evaluate(outer, innerValues);
+        for (int j = 0; j < outerValues.length; j++) {
+            out[from + j] = valid[j] ? outerValues[j] : Double.NaN;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Mult implements Function {
     private Function f1, f2;
@@ -35,4 +36,27 @@ public class Mult implements Function {
 
         return val1 * val2;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+
+        // По столбцам: все значения f1 пишутся сразу в out, затем вычисляются все значения f2
+        f1.getFunctionValues(xs, out, from, to);
+        double[] values2 = Columns.evaluate(f2, xs, from, to);
+
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            if (x < left || x > right) {
+                out[i] = Double.NaN;
+            } else {
+                // NaN любого множителя даёт NaN, как и в getFunctionValue
+                out[i] *= values2[i - from];
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Power implements Function {
     private Function f;
@@ -39,4 +40,26 @@ public class Power implements Function {
 
         return Math.pow(val, power);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+
+        boolean integerPower = power == Math.round(power);
+        f.getFunctionValues(xs, out, from, to);
+
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            double val = out[i];
+            if (x < left || x > right || Double.isNaN(val) || (val < 0 && !integerPower)) {
+                out[i] = Double.NaN;
+            } else {
+                out[i] = Math.pow(val, power);
+            }
+        }
+    }
+}
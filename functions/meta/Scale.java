@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Scale implements Function {
     private Function f;
@@ -49,4 +50,28 @@ public class Scale implements Function {
 
         return val * scaleY;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+
+        double[] scaledX = new double[to - from];
+        for (int i = from; i < to; i++) {
+            scaledX[i - from] = xs[i] * scaleX;
+        }
+        double[] values = Columns.evaluate(f, scaledX);
+
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            if (x < left || x > right) {
+                out[i] = Double.NaN;
+            } else {
+                out[i] = values[i - from] * scaleY;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Shift implements Function {
     private Function f;
@@ -37,4 +38,28 @@ public class Shift implements Function {
 
         return val + shiftY;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+
+        double[] shiftedX = new double[to - from];
+        for (int i = from; i < to; i++) {
+            shiftedX[i - from] = xs[i] + shiftX;
+        }
+        double[] values = Columns.evaluate(f, shiftedX);
+
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            if (x < left || x > right) {
+                out[i] = Double.NaN;
+            } else {
+                out[i] = values[i - from] + shiftY;
+            }
+        }
+    }
+}
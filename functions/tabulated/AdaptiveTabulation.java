@@ -0,0 +1,178 @@
+package functions.tabulated;
+
+import functions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Результат адаптивного табулирования: функция, количество её точек и
+// достигнутая оценка погрешности линейной интерполяции.
+//
+// Точки расставляются так: отрезок сначала делится равномерной сеткой, затем
+// интервал с наибольшей погрешностью делится пополам, пока погрешность всех
+// интервалов не станет не больше допуска или не кончится лимит точек.
+// Погрешность интервала [a, b] оценивается как наибольшее отклонение функции
+// от хорды в трёх внутренних точках: четвертях и середине. Одной середины
+// мало: у периодической функции с периодом, кратным длине интервала, она
+// попадает на хорду, и оценка ложно оказывается нулевой. При делении середина
+// становится новой точкой, а четверти - серединами половин, поэтому каждое
+// значение функции вычисляется один раз.
+//
+// Оценка получена по выборке точек и не является строгой границей: между
+// ними функция может отклоняться от хорды сильнее
+public final class AdaptiveTabulation {
+    // Интервалов начальной равномерной сетки: чтобы не пропустить особенности
+    // функции, попавшие между редкими точками первого шага
+    private static final int INITIAL_INTERVALS = 16;
+
+    private final TabulatedFunction function;
+    private final double tolerance;
+    private final double errorEstimate;
+
+    private AdaptiveTabulation(TabulatedFunction function, double tolerance, double errorEstimate) {
+        this.function = function;
+        this.tolerance = tolerance;
+        this.errorEstimate = errorEstimate;
+    }
+
+    public TabulatedFunction getFunction() {
+        return function;
+    }
+
+    public int getPointsCount() {
+        return function.getPointsCount();
+    }
+
+    // Наибольшая оценка погрешности интерполяции по интервалам полученной функции
+    public double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    // false - лимит точек исчерпан раньше, чем достигнут допуск,
+    // или интервалы стали слишком малы для деления
+    public boolean isToleranceReached() {
+        return errorEstimate <= tolerance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d точек, погрешность %.3g (допуск %.3g)", getPointsCount(), errorEstimate, tolerance);
+    }
+
+    // ==================== ПОСТРОЕНИЕ ====================
+
+    // Интервал [leftX, rightX] со значениями на концах, в середине и четвертях
+    private static final class Interval {
+        final double leftX, leftY;
+        final double quarterX, quarterY;
+        final double middleX, middleY;
+        final double threeQuartersX, threeQuartersY;
+        final double rightX, rightY;
+        final double error;
+
+        Interval(double leftX, double leftY, double rightX, double rightY, Function f) {
+            this(leftX, leftY, middle(leftX, rightX), value(f, middle(leftX, rightX)), rightX, rightY, f);
+        }
+
+        // Значение в середине уже известно: это четверть делимого интервала
+        Interval(double leftX, double leftY, double middleX, double middleY, double rightX, double rightY,
+                 Function f) {
+            this.leftX = leftX;
+            this.leftY = leftY;
+            this.middleX = middleX;
+            this.middleY = middleY;
+            this.rightX = rightX;
+            this.rightY = rightY;
+            this.quarterX = middle(leftX, middleX);
+            this.quarterY = value(f, quarterX);
+            this.threeQuartersX = middle(middleX, rightX);
+            this.threeQuartersY = value(f, threeQuartersX);
+            this.error = Math.max(Math.abs(middleY - (leftY + rightY) / 2),
+                    Math.max(deviation(quarterX, quarterY), deviation(threeQuartersX, threeQuartersY)));
+        }
+
+        // Отклонение значения в точке x от хорды интервала
+        private double deviation(double x, double y) {
+            return Math.abs(y - (leftY + (rightY - leftY) * ((x - leftX) / (rightX - leftX))));
+        }
+
+        Interval leftHalf(Function f) {
+            return new Interval(leftX, leftY, quarterX, quarterY, middleX, middleY, f);
+        }
+
+        Interval rightHalf(Function f) {
+            return new Interval(middleX, middleY, threeQuartersX, threeQuartersY, rightX, rightY, f);
+        }
+
+        // Середина совпала с концом: между концами нет других чисел double
+        boolean isSplittable() {
+            return middleX > leftX && middleX < rightX;
+        }
+    }
+
+    static AdaptiveTabulation tabulate(Function f, double leftX, double rightX, double tolerance, int maxPoints,
+                                       TabulatedFunctionFactory factory) {
+        PriorityQueue<Interval> queue = new PriorityQueue<>(
+                (first, second) -> Double.compare(second.error, first.error));
+        // Интервалы, которые больше не делятся
+        List<Interval> finished = new ArrayList<>();
+
+        int intervals = Math.min(INITIAL_INTERVALS, maxPoints - 1);
+        double step = (rightX - leftX) / intervals;
+        double x = leftX;
+        double y = value(f, x);
+        for (int i = 1; i <= intervals; i++) {
+            double nextX = i == intervals ? rightX : leftX + i * step;
+            double nextY = value(f, nextX);
+            queue.add(new Interval(x, y, nextX, nextY, f));
+            x = nextX;
+            y = nextY;
+        }
+
+        int pointsCount = intervals + 1;
+        while (!queue.isEmpty() && queue.peek().error > tolerance && pointsCount < maxPoints) {
+            Interval interval = queue.poll();
+            if (!interval.isSplittable()) {
+                finished.add(interval);
+                continue;
+            }
+            queue.add(interval.leftHalf(f));
+            queue.add(interval.rightHalf(f));
+            pointsCount++;
+        }
+        finished.addAll(queue);
+
+        // Левые концы интервалов по возрастанию и правая граница отрезка
+        Interval[] sorted = finished.toArray(new Interval[0]);
+        Arrays.sort(sorted, (first, second) -> Double.compare(first.leftX, second.leftX));
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        double errorEstimate = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            xValues[i] = sorted[i].leftX;
+            yValues[i] = sorted[i].leftY;
+            errorEstimate = Math.max(errorEstimate, sorted[i].error);
+        }
+        xValues[pointsCount - 1] = rightX;
+        yValues[pointsCount - 1] = sorted[sorted.length - 1].rightY;
+
+        return new AdaptiveTabulation(factory.createTabulatedFunction(xValues, yValues), tolerance, errorEstimate);
+    }
+
+    private static double middle(double leftX, double rightX) {
+        return leftX + (rightX - leftX) / 2;
+    }
+
+    private static double value(Function f, double x) {
+        double y = f.getFunctionValue(x);
+        if (Double.isNaN(y)) {
+            throw new IllegalArgumentException("Функция не определена в точке x=" + x);
+        }
+        return y;
+    }
+}
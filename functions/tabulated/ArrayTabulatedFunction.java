@@ -1,13 +1,20 @@
 package functions.tabulated;
 
 import functions.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Iterator;
+import java.util.Objects;
 
 public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
-    private static final long serialVersionUID = 2L;
-    private FunctionPoint[] points;
-    private int pointsCount;
+    // Версия 3: точки сериализуются компактно в writeObject, а не массивом FunctionPoint
+    private static final long serialVersionUID = 3L;
+    private transient FunctionPoint[] points;
+    private transient int pointsCount;
+    // Интерполяционный поиск отрезка вместо двоичного (для почти равномерных сеток)
+    private boolean interpolationSearch;
 
     public ArrayTabulatedFunction(double leftX, double rightX, int pointsCount) {
         if (leftX >= rightX) {
@@ -152,24 +159,146 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
             return Double.NaN;
         }
 
+        return valueAt(findCeilingIndex(x), x);
+    }
+
+    // Значение в точке x по индексу i первой точки с X >= x
+    private double valueAt(int i, double x) {
+        // Совпадение с точкой в пределах eps: точки упорядочены, поэтому
+        // кандидатами могут быть только соседи найденного индекса
         final double eps = 1e-10;
-        for (int i = 0; i < pointsCount; i++) {
-            if (Math.abs(points[i].getX() - x) <= eps) {
-                return points[i].getY();
-            }
+        if (i > 0 && Math.abs(points[i - 1].getX() - x) <= eps) {
+            return points[i - 1].getY();
+        }
+        if (Math.abs(points[i].getX() - x) <= eps) {
+            return points[i].getY();
         }
-
-        int i = 0;
-        while (i < pointsCount && points[i].getX() < x) i++;
 
         if (i == 0) return points[0].getY();
-        if (i == pointsCount) return points[pointsCount - 1].getY();
 
         FunctionPoint left = points[i - 1];
         FunctionPoint right = points[i];
         return left.getY() + (right.getY() - left.getY()) * (x - left.getX()) / (right.getX() - left.getX());
     }
 
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double leftX = getLeftDomainBorder();
+        double rightX = getRightDomainBorder();
+
+        // Слияние с упорядоченным входом: индекс отрезка только растёт,
+        // при нарушении порядка отрезок ищется заново
+        int i = 0;
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (!(x >= leftX && x <= rightX)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            if (x < previous) {
+                i = findCeilingIndex(x);
+            } else {
+                while (points[i].getX() < x) i++;
+            }
+            previous = x;
+
+            out[k] = valueAt(i, x);
+        }
+    }
+
+    @Override
+    public Function evaluator() {
+        return new Function() {
+            // Индекс первой точки с X >= x для последнего вычисленного x
+            private int hint = 0;
+
+            @Override
+            public double getLeftDomainBorder() {
+                return ArrayTabulatedFunction.this.getLeftDomainBorder();
+            }
+
+            @Override
+            public double getRightDomainBorder() {
+                return ArrayTabulatedFunction.this.getRightDomainBorder();
+            }
+
+            @Override
+            public double getFunctionValue(double x) {
+                if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+                    return Double.NaN;
+                }
+
+                if (hint >= pointsCount) hint = pointsCount - 1;
+
+                if (points[hint].getX() < x) {
+                    // Несколько шагов вперёд от подсказки, при дальнем переходе - поиск
+                    int steps = 0;
+                    while (points[hint].getX() < x) {
+                        if (++steps > 8) {
+                            hint = findCeilingIndex(x);
+                            break;
+                        }
+                        hint++;
+                    }
+                } else if (hint > 0 && points[hint - 1].getX() >= x) {
+                    hint = findCeilingIndex(x);
+                }
+
+                return valueAt(hint, x);
+            }
+        };
+    }
+
+    public boolean isInterpolationSearch() {
+        return interpolationSearch;
+    }
+
+    public void setInterpolationSearch(boolean interpolationSearch) {
+        this.interpolationSearch = interpolationSearch;
+    }
+
+    // Индекс первой точки с X >= x; x должен лежать в области определения
+    private int findCeilingIndex(double x) {
+        int low = 0;
+        int high = pointsCount - 1;
+
+        if (interpolationSearch) {
+            // На равномерной сетке попадает за 1-2 шага; число итераций ограничено,
+            // чтобы на неравномерных данных не выродиться в линейный поиск
+            for (int attempts = 0; attempts < 8 && low < high; attempts++) {
+                double lowX = points[low].getX();
+                if (lowX >= x) {
+                    return low;
+                }
+                double highX = points[high].getX();
+                int pos = low + (int) ((x - lowX) / (highX - lowX) * (high - low));
+                if (pos <= low) pos = low + 1;
+                if (pos > high) pos = high;
+
+                if (points[pos].getX() < x) {
+                    low = pos + 1;
+                } else {
+                    high = pos;
+                }
+            }
+        }
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid].getX() < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     @Override
     public int getPointsCount() {
         return pointsCount;
@@ -279,6 +408,55 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
         pointsCount++;
     }
 
+    @Override
+    public void addPoints(FunctionPoint[] newPoints)
+            throws InappropriateFunctionPointException {
+
+        FunctionPoint[] batch = TabulatedFunction.sortedDistinct(newPoints);
+
+        // Слияние в новый массив; исходный заменяется только после успешной проверки
+        FunctionPoint[] merged = new FunctionPoint[pointsCount + batch.length + 10];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        boolean lastFromBatch = false;
+        while (i < pointsCount || j < batch.length) {
+            boolean takeBatch = i == pointsCount ||
+                    (j < batch.length && batch[j].getX() < points[i].getX());
+            FunctionPoint next = takeBatch ? batch[j] : points[i];
+
+            if (k > 0 && takeBatch != lastFromBatch &&
+                    Math.abs(merged[k - 1].getX() - next.getX()) < 1e-10) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
+
+            if (takeBatch) {
+                merged[k++] = new FunctionPoint(next);
+                j++;
+            } else {
+                merged[k++] = next;
+                i++;
+            }
+            lastFromBatch = takeBatch;
+        }
+
+        points = merged;
+        pointsCount = k;
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+
+        for (int i = 0; i < length; i++) {
+            FunctionPoint point = points[from + i];
+            xValues[offset + i] = point.getX();
+            yValues[offset + i] = point.getY();
+        }
+    }
+
     @Override
     public Iterator<FunctionPoint> iterator() {
         return new Iterator<FunctionPoint>() {
@@ -304,6 +482,23 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable {
         };
     }
 
+    // Вместо массива FunctionPoint с запасными пустыми ячейками в поток
+    // пишутся количество точек и упакованные пары double
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        TabulatedSerialization.writePoints(this, out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        double[][] values = TabulatedSerialization.readPoints(in);
+        pointsCount = values[0].length;
+        points = new FunctionPoint[pointsCount + 10];
+        for (int i = 0; i < pointsCount; i++) {
+            points[i] = new FunctionPoint(values[0][i], values[1][i]);
+        }
+    }
+
     public static class ArrayTabulatedFunctionFactory implements TabulatedFunctionFactory {
         @Override
         public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
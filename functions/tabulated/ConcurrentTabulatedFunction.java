@@ -0,0 +1,577 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+// Потокобезопасная табулированная функция на двух примитивных массивах.
+// Чтение (getFunctionValue, getPointX/Y и т.п.) идёт без блокировок: поля
+// копируются в локальные переменные под оптимистичной меткой StampedLock,
+// вычисление защищено от выхода за границы массивов, а результат принимается
+// только если метка осталась действительной. При конкурирующей записи чтение
+// повторяется под блокировкой чтения. Запись занимает короткую
+// исключительную секцию
+public class ConcurrentTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final double EPS = 1e-10;
+
+    private double[] xValues;
+    private double[] yValues;
+    private int pointsCount;
+
+    private transient StampedLock lock = new StampedLock();
+
+    public ConcurrentTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.pointsCount = pointsCount;
+        xValues = new double[pointsCount + 10];
+        yValues = new double[pointsCount + 10];
+        double step = (rightX - leftX) / (pointsCount - 1);
+
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = leftX + i * step;
+        }
+    }
+
+    public ConcurrentTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values.length);
+        System.arraycopy(values, 0, yValues, 0, values.length);
+    }
+
+    public ConcurrentTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() <= points[i - 1].getX()) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+
+        this.pointsCount = points.length;
+        xValues = new double[pointsCount + 10];
+        yValues = new double[pointsCount + 10];
+
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = points[i].getX();
+            yValues[i] = points[i].getY();
+        }
+    }
+
+    public ConcurrentTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues.length != yValues.length) {
+            throw new IllegalArgumentException("Массивы X и Y должны быть одинаковой длины");
+        }
+        if (xValues.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < xValues.length; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+
+        this.pointsCount = xValues.length;
+        this.xValues = Arrays.copyOf(xValues, pointsCount + 10);
+        this.yValues = Arrays.copyOf(yValues, pointsCount + 10);
+    }
+
+    // ==================== ЧТЕНИЕ ====================
+
+    // Согласованность локальных копий полей, прочитанных без блокировки:
+    // при гонке с записью количество может не соответствовать массивам
+    private static boolean consistent(double[] xs, double[] ys, int count) {
+        return count >= 2 && count <= xs.length && count <= ys.length;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        long stamp = lock.tryOptimisticRead();
+        double left = xValues[0];
+        if (lock.validate(stamp)) {
+            return left;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return xValues[0];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        long stamp = lock.tryOptimisticRead();
+        double[] xs = xValues;
+        int count = pointsCount;
+        if (count >= 1 && count <= xs.length) {
+            double right = xs[count - 1];
+            if (lock.validate(stamp)) {
+                return right;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return xValues[pointsCount - 1];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        long stamp = lock.tryOptimisticRead();
+        double[] xs = xValues;
+        double[] ys = yValues;
+        int count = pointsCount;
+        if (consistent(xs, ys, count)) {
+            double value = valueAt(xs, ys, count, x);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return valueAt(xValues, yValues, pointsCount, x);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        // Весь пакет вычисляется по одной метке; если за это время была запись,
+        // пакет пересчитывается под блокировкой чтения
+        long stamp = lock.tryOptimisticRead();
+        double[] pointsX = xValues;
+        double[] pointsY = yValues;
+        int count = pointsCount;
+        if (consistent(pointsX, pointsY, count)) {
+            for (int k = from; k < to; k++) {
+                out[k] = valueAt(pointsX, pointsY, count, xs[k]);
+            }
+            if (lock.validate(stamp)) {
+                return;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            for (int k = from; k < to; k++) {
+                out[k] = valueAt(xValues, yValues, pointsCount, xs[k]);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Значение по точкам xs/ys; все индексы остаются в [0, count - 1]
+    private static double valueAt(double[] xs, double[] ys, int count, double x) {
+        if (!(x >= xs[0] && x <= xs[count - 1])) {
+            return Double.NaN;
+        }
+
+        // Индекс первой точки с X >= x
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int i = low;
+
+        if (i > 0 && Math.abs(xs[i - 1] - x) <= EPS) {
+            return ys[i - 1];
+        }
+        if (Math.abs(xs[i] - x) <= EPS || i == 0) {
+            return ys[i];
+        }
+
+        double leftX = xs[i - 1];
+        double leftY = ys[i - 1];
+        return leftY + (ys[i] - leftY) * (x - leftX) / (xs[i] - leftX);
+    }
+
+    @Override
+    public int getPointsCount() {
+        long stamp = lock.tryOptimisticRead();
+        int count = pointsCount;
+        if (lock.validate(stamp)) {
+            return count;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return pointsCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) {
+        long stamp = lock.tryOptimisticRead();
+        double[] xs = xValues;
+        double[] ys = yValues;
+        int count = pointsCount;
+        if (consistent(xs, ys, count) && index >= 0 && index < count) {
+            double x = xs[index];
+            double y = ys[index];
+            if (lock.validate(stamp)) {
+                return new FunctionPoint(x, y);
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            checkIndex(index);
+            return new FunctionPoint(xValues[index], yValues[index]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public double getPointX(int index) {
+        long stamp = lock.tryOptimisticRead();
+        double[] xs = xValues;
+        int count = pointsCount;
+        if (count <= xs.length && index >= 0 && index < count) {
+            double x = xs[index];
+            if (lock.validate(stamp)) {
+                return x;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            checkIndex(index);
+            return xValues[index];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public double getPointY(int index) {
+        long stamp = lock.tryOptimisticRead();
+        double[] ys = yValues;
+        int count = pointsCount;
+        if (count <= ys.length && index >= 0 && index < count) {
+            double y = ys[index];
+            if (lock.validate(stamp)) {
+                return y;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            checkIndex(index);
+            return yValues[index];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Проверка индекса; вызывается под блокировкой
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    // Согласованная копия точек для итератора, equals, hashCode и toString
+    private PrimitiveArrayTabulatedFunction snapshot() {
+        long stamp = lock.readLock();
+        try {
+            return new PrimitiveArrayTabulatedFunction(
+                    Arrays.copyOf(xValues, pointsCount), Arrays.copyOf(yValues, pointsCount));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+
+        long stamp = lock.readLock();
+        try {
+            Objects.checkFromIndexSize(from, length, pointsCount);
+            System.arraycopy(this.xValues, from, xValues, offset, length);
+            System.arraycopy(this.yValues, from, yValues, offset, length);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Итератор обходит снимок точек на момент своего создания
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        Iterator<FunctionPoint> points = snapshot().iterator();
+        return new Iterator<FunctionPoint>() {
+            @Override
+            public boolean hasNext() {
+                return points.hasNext();
+            }
+
+            @Override
+            public FunctionPoint next() {
+                return points.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Операция удаления не поддерживается");
+            }
+        };
+    }
+
+    // ==================== ЗАПИСЬ ====================
+
+    @Override
+    public void setPoint(int index, FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index);
+
+            if ((index > 0 && point.getX() <= xValues[index - 1]) ||
+                    (index < pointsCount - 1 && point.getX() >= xValues[index + 1])) {
+                throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+            }
+
+            xValues[index] = point.getX();
+            yValues[index] = point.getY();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void setPointX(int index, double x)
+            throws InappropriateFunctionPointException {
+
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index);
+
+            if ((index > 0 && x <= xValues[index - 1]) ||
+                    (index < pointsCount - 1 && x >= xValues[index + 1])) {
+                throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+            }
+
+            xValues[index] = x;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void setPointY(int index, double y) {
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index);
+            yValues[index] = y;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void deletePoint(int index) {
+        long stamp = lock.writeLock();
+        try {
+            if (pointsCount < 3) {
+                throw new IllegalStateException("Нельзя удалить точку: останется меньше 2 точек");
+            }
+            checkIndex(index);
+
+            System.arraycopy(xValues, index + 1, xValues, index, pointsCount - index - 1);
+            System.arraycopy(yValues, index + 1, yValues, index, pointsCount - index - 1);
+            pointsCount--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        double x = point.getX();
+
+        long stamp = lock.writeLock();
+        try {
+            int low = 0;
+            int high = pointsCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (xValues[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int i = low;
+
+            if ((i > 0 && Math.abs(xValues[i - 1] - x) < EPS) ||
+                    (i < pointsCount && Math.abs(xValues[i] - x) < EPS)) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
+
+            if (pointsCount == xValues.length) {
+                xValues = Arrays.copyOf(xValues, xValues.length * 2);
+                yValues = Arrays.copyOf(yValues, yValues.length * 2);
+            }
+
+            System.arraycopy(xValues, i, xValues, i + 1, pointsCount - i);
+            System.arraycopy(yValues, i, yValues, i + 1, pointsCount - i);
+            xValues[i] = x;
+            yValues[i] = point.getY();
+            pointsCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] newPoints)
+            throws InappropriateFunctionPointException {
+
+        FunctionPoint[] batch = TabulatedFunction.sortedDistinct(newPoints);
+
+        long stamp = lock.writeLock();
+        try {
+            // Слияние в новые массивы; исходные заменяются только после успешной проверки
+            int capacity = pointsCount + batch.length + 10;
+            double[] mergedX = new double[capacity];
+            double[] mergedY = new double[capacity];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            boolean lastFromBatch = false;
+            while (i < pointsCount || j < batch.length) {
+                boolean takeBatch = i == pointsCount ||
+                        (j < batch.length && batch[j].getX() < xValues[i]);
+                double x = takeBatch ? batch[j].getX() : xValues[i];
+
+                if (k > 0 && takeBatch != lastFromBatch && Math.abs(mergedX[k - 1] - x) < EPS) {
+                    throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+                }
+
+                mergedX[k] = x;
+                mergedY[k] = takeBatch ? batch[j++].getY() : yValues[i++];
+                k++;
+                lastFromBatch = takeBatch;
+            }
+
+            xValues = mergedX;
+            yValues = mergedY;
+            pointsCount = k;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ==================== ОБЪЕКТНЫЕ МЕТОДЫ ====================
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        return snapshot().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return snapshot().hashCode();
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        ConcurrentTabulatedFunction cloned = (ConcurrentTabulatedFunction) super.clone();
+        long stamp = lock.readLock();
+        try {
+            cloned.xValues = xValues.clone();
+            cloned.yValues = yValues.clone();
+            cloned.pointsCount = pointsCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        cloned.lock = new StampedLock();
+        return cloned;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            out.defaultWriteObject();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new StampedLock();
+    }
+
+    public static class ConcurrentTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new ConcurrentTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new ConcurrentTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new ConcurrentTabulatedFunction(points);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+            return new ConcurrentTabulatedFunction(xValues, yValues);
+        }
+    }
+}
@@ -0,0 +1,629 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+
+// Неизменяемый снимок табулированной функции. Координаты хранятся блоками
+// (по CHUNK_SIZE точек), которые после публикации никогда не изменяются.
+// Новая версия создаётся через Editor: изменённые блоки копируются, а все
+// остальные разделяются со старой версией, поэтому пакет изменений стоит
+// O(число затронутых блоков * CHUNK_SIZE + число блоков), а не O(n).
+// Снимок можно без синхронизации и копирования читать из любого числа потоков
+public final class ImmutableTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final double EPS = 1e-10;
+    static final int CHUNK_SIZE = 1024;
+
+    private final double[][] xChunks;
+    private final double[][] yChunks;
+    // chunkStarts[c] - индекс первой точки блока c; chunkStarts[chunkCount] = pointsCount
+    private final int[] chunkStarts;
+    private final int pointsCount;
+    private final long version;
+
+    private ImmutableTabulatedFunction(double[][] xChunks, double[][] yChunks, long version) {
+        this.xChunks = xChunks;
+        this.yChunks = yChunks;
+        this.version = version;
+        this.chunkStarts = new int[xChunks.length + 1];
+        for (int c = 0; c < xChunks.length; c++) {
+            chunkStarts[c + 1] = chunkStarts[c] + xChunks[c].length;
+        }
+        this.pointsCount = chunkStarts[xChunks.length];
+    }
+
+    public ImmutableTabulatedFunction(double[] xValues, double[] yValues) {
+        this(chunksOf(validated(xValues, yValues)), chunksOf(yValues), 0);
+    }
+
+    public ImmutableTabulatedFunction(FunctionPoint[] points) {
+        this(xValuesOf(points), yValuesOf(points));
+    }
+
+    public ImmutableTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(gridOf(leftX, rightX, values.length), values);
+    }
+
+    public ImmutableTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(gridOf(leftX, rightX, pointsCount), new double[pointsCount]);
+    }
+
+    // Снимок произвольной табулированной функции; снимок возвращается как есть
+    public static ImmutableTabulatedFunction copyOf(TabulatedFunction function) {
+        if (function instanceof ImmutableTabulatedFunction) {
+            return (ImmutableTabulatedFunction) function;
+        }
+
+        int count = function.getPointsCount();
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        int i = 0;
+        for (FunctionPoint point : function) {
+            xValues[i] = point.getX();
+            yValues[i] = point.getY();
+            i++;
+        }
+        return new ImmutableTabulatedFunction(xValues, yValues);
+    }
+
+    private static double[] validated(double[] xValues, double[] yValues) {
+        if (xValues.length != yValues.length) {
+            throw new IllegalArgumentException("Массивы X и Y должны быть одинаковой длины");
+        }
+        if (xValues.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        for (int i = 1; i < xValues.length; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+        return xValues;
+    }
+
+    private static double[][] chunksOf(double[] values) {
+        int chunkCount = (values.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        double[][] chunks = new double[chunkCount][];
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = Arrays.copyOfRange(values, c * CHUNK_SIZE, Math.min(values.length, (c + 1) * CHUNK_SIZE));
+        }
+        return chunks;
+    }
+
+    private static double[] xValuesOf(FunctionPoint[] points) {
+        double[] xValues = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xValues[i] = points[i].getX();
+        }
+        return xValues;
+    }
+
+    private static double[] yValuesOf(FunctionPoint[] points) {
+        double[] yValues = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            yValues[i] = points[i].getY();
+        }
+        return yValues;
+    }
+
+    private static double[] gridOf(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        double[] xValues = new double[pointsCount];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = leftX + i * step;
+        }
+        return xValues;
+    }
+
+    // Номер версии: 0 у исходного снимка, +1 на каждый пакет изменений
+    public long getVersion() {
+        return version;
+    }
+
+    // Начало пакета изменений, результатом которого станет следующая версия
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    // Номер блока, содержащего точку с индексом index
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = xChunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunkStarts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private double x(int index) {
+        int c = chunkOf(index);
+        return xChunks[c][index - chunkStarts[c]];
+    }
+
+    private double y(int index) {
+        int c = chunkOf(index);
+        return yChunks[c][index - chunkStarts[c]];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    private static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException(
+                "Снимок табулированной функции неизменяем; используйте edit()");
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return xChunks[0][0];
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        double[] last = xChunks[xChunks.length - 1];
+        return last[last.length - 1];
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        return valueAt(findCeilingIndex(x), x);
+    }
+
+    // Индекс первой точки с X >= x: сначала блок по первым X блоков, затем точка в блоке
+    private int findCeilingIndex(double x) {
+        int low = 0;
+        int high = xChunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (xChunks[mid][0] < x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        double[] chunk = xChunks[low];
+        int position = Arrays.binarySearch(chunk, x);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        return chunkStarts[low] + position;
+    }
+
+    // Значение в точке x по индексу i первой точки с X >= x
+    private double valueAt(int i, double x) {
+        if (i > 0 && Math.abs(x(i - 1) - x) <= EPS) {
+            return y(i - 1);
+        }
+        if (Math.abs(x(i) - x) <= EPS || i == 0) {
+            return y(i);
+        }
+
+        double leftX = x(i - 1);
+        double leftY = y(i - 1);
+        return leftY + (y(i) - leftY) * (x - leftX) / (x(i) - leftX);
+    }
+
+    @Override
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    @Override
+    public void setPoint(int index, FunctionPoint point) {
+        throw immutable();
+    }
+
+    @Override
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    @Override
+    public void setPointX(int index, double x) {
+        throw immutable();
+    }
+
+    @Override
+    public double getPointY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    @Override
+    public void setPointY(int index, double y) {
+        throw immutable();
+    }
+
+    @Override
+    public void deletePoint(int index) {
+        throw immutable();
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point) {
+        throw immutable();
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points) {
+        throw immutable();
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+        if (length == 0) return;
+
+        int c = chunkOf(from);
+        int position = from - chunkStarts[c];
+        int copied = 0;
+        while (copied < length) {
+            int n = Math.min(length - copied, xChunks[c].length - position);
+            System.arraycopy(xChunks[c], position, xValues, offset + copied, n);
+            System.arraycopy(yChunks[c], position, yValues, offset + copied, n);
+            copied += n;
+            c++;
+            position = 0;
+        }
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int chunk = 0;
+            private int offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < xChunks.length;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("Следующая точка не существует");
+                }
+                FunctionPoint point = new FunctionPoint(xChunks[chunk][offset], yChunks[chunk][offset]);
+                if (++offset == xChunks[chunk].length) {
+                    chunk++;
+                    offset = 0;
+                }
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Операция удаления не поддерживается");
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+
+        boolean first = true;
+        for (int c = 0; c < xChunks.length; c++) {
+            for (int j = 0; j < xChunks[c].length; j++) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append(String.format("(%.2f; %.2f)", xChunks[c][j], yChunks[c][j]));
+            }
+        }
+
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction other = (TabulatedFunction) o;
+
+        if (this.pointsCount != other.getPointsCount()) return false;
+
+        Iterator<FunctionPoint> otherPoints = other.iterator();
+        for (int c = 0; c < xChunks.length; c++) {
+            for (int j = 0; j < xChunks[c].length; j++) {
+                FunctionPoint point = otherPoints.next();
+                if (Math.abs(xChunks[c][j] - point.getX()) >= EPS ||
+                        Math.abs(yChunks[c][j] - point.getY()) >= EPS) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = pointsCount;
+
+        // XOR хэш-кодов всех точек, согласованный с остальными реализациями
+        for (int c = 0; c < xChunks.length; c++) {
+            for (int j = 0; j < xChunks[c].length; j++) {
+                hash ^= FunctionPoint.hashCode(xChunks[c][j], yChunks[c][j]);
+            }
+        }
+
+        return hash;
+    }
+
+    // Снимок неизменяем, поэтому копия разделяет с ним все блоки
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        return super.clone();
+    }
+
+    // Пакет изменений снимка. Блок копируется при первой записи в него в рамках
+    // пакета, дальнейшие записи в тот же блок идут на месте. После build()
+    // редактор использовать нельзя. Не потокобезопасен
+    public static final class Editor {
+        private final long version;
+        private final ArrayList<double[]> xChunks;
+        private final ArrayList<double[]> yChunks;
+        // Блоки, уже скопированные в этом пакете и не разделяемые ни с одним снимком
+        private final Set<double[]> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int[] chunkStarts;
+        private int pointsCount;
+        private boolean built;
+
+        private Editor(ImmutableTabulatedFunction base) {
+            this.version = base.version;
+            this.xChunks = new ArrayList<>(Arrays.asList(base.xChunks));
+            this.yChunks = new ArrayList<>(Arrays.asList(base.yChunks));
+            this.chunkStarts = base.chunkStarts;
+            this.pointsCount = base.pointsCount;
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("Пакет изменений уже опубликован");
+            }
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= pointsCount) {
+                throw new FunctionPointIndexOutOfBoundsException(
+                        "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+                );
+            }
+        }
+
+        private void invalidateStarts() {
+            chunkStarts = null;
+        }
+
+        private int chunkOf(int index) {
+            if (chunkStarts == null) {
+                chunkStarts = new int[xChunks.size() + 1];
+                for (int c = 0; c < xChunks.size(); c++) {
+                    chunkStarts[c + 1] = chunkStarts[c] + xChunks.get(c).length;
+                }
+            }
+            int low = 0;
+            int high = xChunks.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (chunkStarts[mid] <= index) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        // Блок, доступный для записи в этом пакете (копия при первой записи)
+        private double[] writable(ArrayList<double[]> chunks, int c) {
+            double[] chunk = chunks.get(c);
+            if (!owned.contains(chunk)) {
+                chunk = chunk.clone();
+                chunks.set(c, chunk);
+                owned.add(chunk);
+            }
+            return chunk;
+        }
+
+        private double x(int index) {
+            int c = chunkOf(index);
+            return xChunks.get(c)[index - chunkStarts[c]];
+        }
+
+        public int getPointsCount() {
+            return pointsCount;
+        }
+
+        public double getPointX(int index) {
+            checkIndex(index);
+            return x(index);
+        }
+
+        public double getPointY(int index) {
+            checkIndex(index);
+            int c = chunkOf(index);
+            return yChunks.get(c)[index - chunkStarts[c]];
+        }
+
+        public void setPointY(int index, double y) {
+            checkNotBuilt();
+            checkIndex(index);
+            int c = chunkOf(index);
+            writable(yChunks, c)[index - chunkStarts[c]] = y;
+        }
+
+        public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+            checkNotBuilt();
+            checkIndex(index);
+            if ((index > 0 && x <= x(index - 1)) ||
+                    (index < pointsCount - 1 && x >= x(index + 1))) {
+                throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+            }
+            int c = chunkOf(index);
+            writable(xChunks, c)[index - chunkStarts[c]] = x;
+        }
+
+        public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+            setPointX(index, point.getX());
+            setPointY(index, point.getY());
+        }
+
+        public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+            checkNotBuilt();
+            double x = point.getX();
+
+            // Индекс первой точки с X >= x
+            int low = 0;
+            int high = pointsCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (x(mid) < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if ((low > 0 && Math.abs(x(low - 1) - x) < EPS) ||
+                    (low < pointsCount && Math.abs(x(low) - x) < EPS)) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
+
+            // Вставка в блок, содержащий найденную позицию (в конец последнего блока, если за концом)
+            int c = low < pointsCount ? chunkOf(low) : xChunks.size() - 1;
+            int offset = low - chunkStarts[c];
+            double[] newX = insert(xChunks.get(c), offset, x);
+            double[] newY = insert(yChunks.get(c), offset, point.getY());
+
+            if (newX.length > 2 * CHUNK_SIZE) {
+                int half = newX.length / 2;
+                replaceChunk(c, Arrays.copyOfRange(newX, 0, half), Arrays.copyOfRange(newY, 0, half));
+                insertChunk(c + 1, Arrays.copyOfRange(newX, half, newX.length),
+                        Arrays.copyOfRange(newY, half, newY.length));
+            } else {
+                replaceChunk(c, newX, newY);
+            }
+            pointsCount++;
+            invalidateStarts();
+        }
+
+        public void deletePoint(int index) {
+            checkNotBuilt();
+            if (pointsCount < 3) {
+                throw new IllegalStateException("Нельзя удалить точку: останется меньше 2 точек");
+            }
+            checkIndex(index);
+
+            int c = chunkOf(index);
+            int offset = index - chunkStarts[c];
+            if (xChunks.get(c).length == 1) {
+                xChunks.remove(c);
+                yChunks.remove(c);
+            } else {
+                replaceChunk(c, remove(xChunks.get(c), offset), remove(yChunks.get(c), offset));
+            }
+            pointsCount--;
+            invalidateStarts();
+        }
+
+        private void replaceChunk(int c, double[] newX, double[] newY) {
+            xChunks.set(c, newX);
+            yChunks.set(c, newY);
+            owned.add(newX);
+            owned.add(newY);
+        }
+
+        private void insertChunk(int c, double[] newX, double[] newY) {
+            xChunks.add(c, newX);
+            yChunks.add(c, newY);
+            owned.add(newX);
+            owned.add(newY);
+        }
+
+        private static double[] insert(double[] chunk, int offset, double value) {
+            double[] result = new double[chunk.length + 1];
+            System.arraycopy(chunk, 0, result, 0, offset);
+            result[offset] = value;
+            System.arraycopy(chunk, offset, result, offset + 1, chunk.length - offset);
+            return result;
+        }
+
+        private static double[] remove(double[] chunk, int offset) {
+            double[] result = new double[chunk.length - 1];
+            System.arraycopy(chunk, 0, result, 0, offset);
+            System.arraycopy(chunk, offset + 1, result, offset, chunk.length - offset - 1);
+            return result;
+        }
+
+        // Новый снимок со следующим номером версии
+        public ImmutableTabulatedFunction build() {
+            checkNotBuilt();
+            built = true;
+            return new ImmutableTabulatedFunction(
+                    xChunks.toArray(new double[0][]), yChunks.toArray(new double[0][]), version + 1);
+        }
+    }
+
+    public static class ImmutableTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new ImmutableTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new ImmutableTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new ImmutableTabulatedFunction(points);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+            return new ImmutableTabulatedFunction(xValues, yValues);
+        }
+    }
+}
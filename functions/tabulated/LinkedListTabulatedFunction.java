@@ -3,6 +3,7 @@ package functions.tabulated;
 import functions.*;
 import java.io.*;
 import java.util.Iterator;
+import java.util.Objects;
 
 public class LinkedListTabulatedFunction implements TabulatedFunction, Externalizable {
 
@@ -234,6 +235,11 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
             current = current.next;
         }
 
+        return valueAt(current, x);
+    }
+
+    // Значение в точке x по первому узлу с X >= x (не первому в списке)
+    private double valueAt(FunctionNode current, double x) {
         if (Math.abs(current.point.getX() - x) < 1e-10) {
             return current.point.getY();
         }
@@ -244,6 +250,92 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
                 (x - left.getX()) / (right.getX() - left.getX());
     }
 
+    @Override
+    public Function evaluator() {
+        return new Function() {
+            // Первый узел с X >= x для последнего вычисленного x
+            private FunctionNode hint = head.next;
+
+            @Override
+            public double getLeftDomainBorder() {
+                return LinkedListTabulatedFunction.this.getLeftDomainBorder();
+            }
+
+            @Override
+            public double getRightDomainBorder() {
+                return LinkedListTabulatedFunction.this.getRightDomainBorder();
+            }
+
+            @Override
+            public double getFunctionValue(double x) {
+                double leftBorder = getLeftDomainBorder();
+                double rightBorder = getRightDomainBorder();
+
+                if (x < leftBorder || x > rightBorder) {
+                    return Double.NaN;
+                }
+
+                if (Math.abs(x - leftBorder) < 1e-10) {
+                    return head.next.point.getY();
+                }
+                if (Math.abs(x - rightBorder) < 1e-10) {
+                    return head.prev.point.getY();
+                }
+
+                // Узел-подсказка мог быть удалён из списка после прошлого вызова
+                if (hint == head || hint.prev.next != hint) {
+                    hint = head.next;
+                }
+
+                while (hint.point.getX() < x) {
+                    hint = hint.next;
+                }
+                while (hint.prev != head && hint.prev.point.getX() >= x) {
+                    hint = hint.prev;
+                }
+
+                return valueAt(hint, x);
+            }
+        };
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double leftBorder = getLeftDomainBorder();
+        double rightBorder = getRightDomainBorder();
+
+        // Слияние с упорядоченным входом: текущий узел только сдвигается вперёд,
+        // при нарушении порядка обход начинается заново с головы списка
+        FunctionNode current = head.next;
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (!(x >= leftBorder && x <= rightBorder)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            if (x < previous) {
+                current = head.next;
+            }
+            previous = x;
+
+            if (Math.abs(x - leftBorder) < 1e-10) {
+                out[k] = head.next.point.getY();
+            } else if (Math.abs(x - rightBorder) < 1e-10) {
+                out[k] = head.prev.point.getY();
+            } else {
+                while (current.point.getX() < x) {
+                    current = current.next;
+                }
+                out[k] = valueAt(current, x);
+            }
+        }
+    }
+
     @Override
     public int getPointsCount() {
         return pointsCount;
@@ -344,45 +436,63 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
     }
 
     @Override
-    public void writeExternal(ObjectOutput out) throws IOException {
-        out.writeInt(pointsCount);
+    public void addPoints(FunctionPoint[] points)
+            throws InappropriateFunctionPointException {
 
+        FunctionPoint[] batch = TabulatedFunction.sortedDistinct(points);
+
+        // Первый проход - проверка совпадений, чтобы при ошибке список не изменился
         FunctionNode current = head.next;
-        while (current != head) {
-            out.writeDouble(current.point.getX());
-            out.writeDouble(current.point.getY());
-            current = current.next;
+        for (FunctionPoint point : batch) {
+            while (current != head && current.point.getX() - point.getX() <= -1e-10) {
+                current = current.next;
+            }
+            if (current != head && Math.abs(current.point.getX() - point.getX()) < 1e-10) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
         }
+
+        // Второй проход - вставка каждого узла перед первым узлом с большим X
+        current = head.next;
+        for (FunctionPoint point : batch) {
+            while (current != head && current.point.getX() < point.getX()) {
+                current = current.next;
+            }
+            FunctionNode newNode = new FunctionNode(new FunctionPoint(point), current.prev, current);
+            current.prev.next = newNode;
+            current.prev = newNode;
+            pointsCount++;
+        }
+        lastAccessed = null;
     }
 
+    // Формат прежний (количество точек, затем пары x, y), но точки
+    // передаются блоками упакованных байтов, а список строится за один проход
     @Override
-    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
-        pointsCount = in.readInt();
+    public void writeExternal(ObjectOutput out) throws IOException {
+        TabulatedSerialization.writePoints(this, out);
+    }
 
-        if (head == null) {
-            head = new FunctionNode(null);
-            head.next = head;
-            head.prev = head;
-        } else {
-            while (head.next != head) {
-                FunctionNode toRemove = head.next;
-                head.next = toRemove.next;
-                toRemove.next.prev = head;
-            }
-        }
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        double[][] values = TabulatedSerialization.readPoints(in);
+        double[] xValues = values[0];
+        double[] yValues = values[1];
 
+        head = new FunctionNode(null);
+        head.next = head;
+        head.prev = head;
         lastAccessed = null;
         lastIndex = -1;
 
-        for (int i = 0; i < pointsCount; i++) {
-            double x = in.readDouble();
-            double y = in.readDouble();
-            FunctionPoint point = new FunctionPoint(x, y);
-
-            FunctionNode newNode = new FunctionNode(point, head.prev, head);
-            head.prev.next = newNode;
-            head.prev = newNode;
+        FunctionNode tail = head;
+        for (int i = 0; i < xValues.length; i++) {
+            FunctionNode newNode = new FunctionNode(new FunctionPoint(xValues[i], yValues[i]), tail, head);
+            tail.next = newNode;
+            tail = newNode;
         }
+        head.prev = tail;
+        pointsCount = xValues.length;
     }
 
     public FunctionPoint[] getPointsRange(int startIndex, int count) {
@@ -518,6 +628,28 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Externali
         }
     }
 
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+        if (length == 0) return;
+
+        FunctionNode node = getNodeByIndex(from);
+        for (int i = 0; i < length - 1; i++) {
+            xValues[offset + i] = node.point.getX();
+            yValues[offset + i] = node.point.getY();
+            node = node.next;
+        }
+        xValues[offset + length - 1] = node.point.getX();
+        yValues[offset + length - 1] = node.point.getY();
+
+        // Последний скопированный узел запоминается: следующий блок при
+        // последовательном копировании начинается с соседнего узла
+        lastAccessed = node;
+        lastIndex = from + length - 1;
+    }
+
     @Override
     public Iterator<FunctionPoint> iterator() {
         return new Iterator<FunctionPoint>() {
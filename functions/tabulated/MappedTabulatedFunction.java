@@ -0,0 +1,324 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Objects;
+
+// Табулированная функция только для чтения, вычисляемая прямо по файлу в
+// бинарном формате TabulatedFunctions.writeTabulatedFunction(function, DataOutput):
+// int - количество точек, затем пары double (x, y) в порядке big-endian.
+// Файл отображается в память через FileChannel.map, поэтому открытие не читает
+// данные, а страницы файла разделяются всеми процессами, открывшими тот же файл.
+// Упорядоченность точек при открытии не проверяется: файл считается записанным
+// методом writeTabulatedFunction
+public class MappedTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final double EPS = 1e-10;
+
+    private static final int POINT_BYTES = 16;
+    // Одно отображение ограничено 2 ГБ, поэтому большие файлы отображаются частями
+    // по 2^26 точек (1 ГБ)
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final transient MappedByteBuffer[] chunks;
+    private final int pointsCount;
+
+    public MappedTabulatedFunction(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.chunks = map(channel, 0);
+            this.pointsCount = readPointsCount(channel, 0);
+        }
+    }
+
+    // Отображение записи, начинающейся с позиции position открытого канала.
+    // Отображение остаётся действительным и после закрытия канала
+    public MappedTabulatedFunction(FileChannel channel, long position) throws IOException {
+        this.chunks = map(channel, position);
+        this.pointsCount = readPointsCount(channel, position);
+    }
+
+    private static int readPointsCount(FileChannel channel, long position) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, position, 4);
+        return header.getInt(0);
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        if (size - position < 4) {
+            throw new IOException("Файл слишком короткий: отсутствует количество точек");
+        }
+
+        int pointsCount = readPointsCount(channel, position);
+        if (pointsCount < 2) {
+            throw new IOException("Количество точек должно быть не менее 2");
+        }
+        long dataBytes = (long) pointsCount * POINT_BYTES;
+        if (size - position - 4 < dataBytes) {
+            throw new IOException("Файл слишком короткий: ожидалось " + pointsCount + " точек");
+        }
+
+        int chunkCount = (int) (((long) pointsCount + CHUNK_MASK) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+        long chunkBytes = (long) POINT_BYTES << CHUNK_SHIFT;
+        for (int c = 0; c < chunkCount; c++) {
+            long offset = (long) c * chunkBytes;
+            long length = Math.min(chunkBytes, dataBytes - offset);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, position + 4 + offset, length);
+        }
+        return chunks;
+    }
+
+    private double x(int index) {
+        return chunks[index >>> CHUNK_SHIFT].getDouble((index & CHUNK_MASK) * POINT_BYTES);
+    }
+
+    private double y(int index) {
+        return chunks[index >>> CHUNK_SHIFT].getDouble((index & CHUNK_MASK) * POINT_BYTES + 8);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Отображённая табулированная функция доступна только для чтения");
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return x(0);
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return x(pointsCount - 1);
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        return valueAt(findCeilingIndex(x), x);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double leftX = getLeftDomainBorder();
+        double rightX = getRightDomainBorder();
+
+        int i = 0;
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (!(x >= leftX && x <= rightX)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            if (x < previous) {
+                i = findCeilingIndex(x);
+            } else {
+                while (x(i) < x) i++;
+            }
+            previous = x;
+
+            out[k] = valueAt(i, x);
+        }
+    }
+
+    // Индекс первой точки с X >= x (двоичный поиск); x лежит в области определения
+    private int findCeilingIndex(double x) {
+        int low = 0;
+        int high = pointsCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x(mid) < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Значение в точке x по индексу i первой точки с X >= x
+    private double valueAt(int i, double x) {
+        if (i > 0 && Math.abs(x(i - 1) - x) <= EPS) {
+            return y(i - 1);
+        }
+        if (Math.abs(x(i) - x) <= EPS || i == 0) {
+            return y(i);
+        }
+
+        double leftX = x(i - 1);
+        double leftY = y(i - 1);
+        return leftY + (y(i) - leftY) * (x - leftX) / (x(i) - leftX);
+    }
+
+    @Override
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    @Override
+    public void setPoint(int index, FunctionPoint point) {
+        throw readOnly();
+    }
+
+    @Override
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    @Override
+    public void setPointX(int index, double x) {
+        throw readOnly();
+    }
+
+    @Override
+    public double getPointY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    @Override
+    public void setPointY(int index, double y) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deletePoint(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point) {
+        throw readOnly();
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+
+        for (int i = 0; i < length; i++) {
+            xValues[offset + i] = x(from + i);
+            yValues[offset + i] = y(from + i);
+        }
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("Следующая точка не существует");
+                }
+                FunctionPoint point = new FunctionPoint(x(currentIndex), y(currentIndex));
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Операция удаления не поддерживается");
+            }
+        };
+    }
+
+    // Отображение нельзя сериализовать, поэтому в поток пишется копия точек
+    private Object writeReplace() throws ObjectStreamException {
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = x(i);
+            yValues[i] = y(i);
+        }
+        return new PrimitiveArrayTabulatedFunction(xValues, yValues);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(String.format("(%.2f; %.2f)", x(i), y(i)));
+        }
+
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction other = (TabulatedFunction) o;
+
+        if (this.pointsCount != other.getPointsCount()) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (Math.abs(x(i) - other.getPointX(i)) >= EPS ||
+                    Math.abs(y(i) - other.getPointY(i)) >= EPS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = pointsCount;
+
+        // XOR хэш-кодов всех точек, согласованный с остальными реализациями
+        for (int i = 0; i < pointsCount; i++) {
+            hash ^= FunctionPoint.hashCode(x(i), y(i));
+        }
+
+        return hash;
+    }
+
+    // Функция неизменяема, поэтому копия разделяет отображение с оригиналом
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        return super.clone();
+    }
+}
@@ -0,0 +1,90 @@
+package functions.tabulated;
+
+import functions.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Вычисление значений функции в точках равномерной сетки на ForkJoinPool.
+// Диапазон индексов делится на блоки фиксированного размера, не зависящего
+// от числа потоков, и каждое значение считается в той же точке
+// leftX + i * step, что и при последовательном табулировании, поэтому
+// результат побитово совпадает с tabulate при любом параллелизме.
+// Функция должна допускать одновременные вызовы getFunctionValues
+final class ParallelTabulation {
+    // Точек в одном блоке: достаточно, чтобы накладные расходы на задачу
+    // были малы, и достаточно мало, чтобы блоки распределялись по потокам
+    static final int CHUNK_POINTS = 4096;
+
+    private final Function function;
+    private final double leftX;
+    private final double step;
+    private final double[] values;
+    // Наименьший индекс, в котором функция вернула NaN, или values.length
+    private final AtomicInteger firstNaN;
+
+    private ParallelTabulation(Function function, double leftX, double rightX, int pointsCount) {
+        this.function = function;
+        this.leftX = leftX;
+        this.step = (rightX - leftX) / (pointsCount - 1);
+        this.values = new double[pointsCount];
+        this.firstNaN = new AtomicInteger(pointsCount);
+    }
+
+    // Значения функции в pointsCount точках от leftX до rightX. Если функция
+    // не определена в нескольких точках, ошибка сообщает о самой левой из них,
+    // как и последовательный обход
+    static double[] evaluate(Function function, double leftX, double rightX, int pointsCount, ForkJoinPool pool) {
+        ParallelTabulation tabulation = new ParallelTabulation(function, leftX, rightX, pointsCount);
+        int chunks = (pointsCount + CHUNK_POINTS - 1) / CHUNK_POINTS;
+        pool.invoke(tabulation.new Chunks(0, chunks));
+
+        int index = tabulation.firstNaN.get();
+        if (index < pointsCount) {
+            throw new IllegalArgumentException("Функция не определена в точке x=" + tabulation.x(index));
+        }
+        return tabulation.values;
+    }
+
+    private double x(int index) {
+        return leftX + index * step;
+    }
+
+    // Вычисляет блок [from, to) до первого NaN. Блоки правее уже найденного NaN
+    // пропускаются: ошибка всё равно будет о точке левее них
+    private void evaluateChunk(int from, int to) {
+        if (from >= firstNaN.get()) {
+            return;
+        }
+
+        int index = TabulatedFunctions.evaluateGrid(function, leftX, step, values, from, to);
+        if (index < to) {
+            firstNaN.accumulateAndGet(index, Math::min);
+        }
+    }
+
+    // Задача над блоками [fromChunk, toChunk): делится пополам до одного блока
+    private final class Chunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromChunk;
+        private final int toChunk;
+
+        Chunks(int fromChunk, int toChunk) {
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                int from = fromChunk * CHUNK_POINTS;
+                evaluateChunk(from, Math.min(from + CHUNK_POINTS, values.length));
+                return;
+            }
+
+            int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(new Chunks(fromChunk, middle), new Chunks(middle, toChunk));
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+// Табулированная функция, хранящая координаты точек в двух примитивных массивах
+// (структура массивов). В отличие от ArrayTabulatedFunction не создаёт объект
+// FunctionPoint на каждую точку, поэтому занимает примерно втрое меньше памяти
+// и последовательно располагает данные при поиске и интерполяции
+public class PrimitiveArrayTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final double EPS = 1e-10;
+
+    private double[] xValues;
+    private double[] yValues;
+    private int pointsCount;
+
+    public PrimitiveArrayTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.pointsCount = pointsCount;
+        xValues = new double[pointsCount + 10];
+        yValues = new double[pointsCount + 10];
+        double step = (rightX - leftX) / (pointsCount - 1);
+
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = leftX + i * step;
+        }
+    }
+
+    public PrimitiveArrayTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values.length);
+        System.arraycopy(values, 0, yValues, 0, values.length);
+    }
+
+    public PrimitiveArrayTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() <= points[i - 1].getX()) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+
+        this.pointsCount = points.length;
+        xValues = new double[pointsCount + 10];
+        yValues = new double[pointsCount + 10];
+
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = points[i].getX();
+            yValues[i] = points[i].getY();
+        }
+    }
+
+    public PrimitiveArrayTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues.length != yValues.length) {
+            throw new IllegalArgumentException("Массивы X и Y должны быть одинаковой длины");
+        }
+        if (xValues.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < xValues.length; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+
+        this.pointsCount = xValues.length;
+        this.xValues = Arrays.copyOf(xValues, pointsCount + 10);
+        this.yValues = Arrays.copyOf(yValues, pointsCount + 10);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(String.format("(%.2f; %.2f)", xValues[i], yValues[i]));
+        }
+
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction other = (TabulatedFunction) o;
+
+        if (this.pointsCount != other.getPointsCount()) return false;
+
+        // Сравнение двух примитивных хранилищ без создания объектов FunctionPoint
+        if (o instanceof PrimitiveArrayTabulatedFunction) {
+            PrimitiveArrayTabulatedFunction otherArray = (PrimitiveArrayTabulatedFunction) o;
+
+            for (int i = 0; i < pointsCount; i++) {
+                if (Math.abs(xValues[i] - otherArray.xValues[i]) >= EPS ||
+                        Math.abs(yValues[i] - otherArray.yValues[i]) >= EPS) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Общий случай: те же правила сравнения, что и в FunctionPoint.equals
+        for (int i = 0; i < pointsCount; i++) {
+            if (!new FunctionPoint(xValues[i], yValues[i]).equals(other.getPoint(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = pointsCount;
+
+        // XOR хэш-кодов всех точек, согласованный с остальными реализациями
+        for (int i = 0; i < pointsCount; i++) {
+            hash ^= FunctionPoint.hashCode(xValues[i], yValues[i]);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        PrimitiveArrayTabulatedFunction cloned = (PrimitiveArrayTabulatedFunction) super.clone();
+        cloned.xValues = xValues.clone();
+        cloned.yValues = yValues.clone();
+        return cloned;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return xValues[0];
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return xValues[pointsCount - 1];
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        return valueAt(findCeilingIndex(x), x);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, xs.length);
+        Objects.checkFromToIndex(from, to, out.length);
+
+        double leftX = getLeftDomainBorder();
+        double rightX = getRightDomainBorder();
+
+        // Слияние с упорядоченным входом: индекс отрезка только растёт,
+        // при нарушении порядка отрезок ищется заново
+        int i = 0;
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (!(x >= leftX && x <= rightX)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            if (x < previous) {
+                i = findCeilingIndex(x);
+            } else {
+                while (xValues[i] < x) i++;
+            }
+            previous = x;
+
+            out[k] = valueAt(i, x);
+        }
+    }
+
+    @Override
+    public Function evaluator() {
+        return new Function() {
+            // Индекс первой точки с X >= x для последнего вычисленного x
+            private int hint = 0;
+
+            @Override
+            public double getLeftDomainBorder() {
+                return PrimitiveArrayTabulatedFunction.this.getLeftDomainBorder();
+            }
+
+            @Override
+            public double getRightDomainBorder() {
+                return PrimitiveArrayTabulatedFunction.this.getRightDomainBorder();
+            }
+
+            @Override
+            public double getFunctionValue(double x) {
+                if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+                    return Double.NaN;
+                }
+
+                if (hint >= pointsCount) hint = pointsCount - 1;
+
+                if (xValues[hint] < x) {
+                    // Несколько шагов вперёд от подсказки, при дальнем переходе - поиск
+                    int steps = 0;
+                    while (xValues[hint] < x) {
+                        if (++steps > 8) {
+                            hint = findCeilingIndex(x);
+                            break;
+                        }
+                        hint++;
+                    }
+                } else if (hint > 0 && xValues[hint - 1] >= x) {
+                    hint = findCeilingIndex(x);
+                }
+
+                return valueAt(hint, x);
+            }
+        };
+    }
+
+    // Индекс первой точки с X >= x (двоичный поиск); x лежит в области определения
+    private int findCeilingIndex(double x) {
+        int low = 0;
+        int high = pointsCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xValues[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Значение в точке x по индексу i первой точки с X >= x
+    private double valueAt(int i, double x) {
+        if (i > 0 && Math.abs(xValues[i - 1] - x) <= EPS) {
+            return yValues[i - 1];
+        }
+        if (Math.abs(xValues[i] - x) <= EPS || i == 0) {
+            return yValues[i];
+        }
+
+        double leftX = xValues[i - 1];
+        double leftY = yValues[i - 1];
+        return leftY + (yValues[i] - leftY) * (x - leftX) / (xValues[i] - leftX);
+    }
+
+    @Override
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+        return new FunctionPoint(xValues[index], yValues[index]);
+    }
+
+    @Override
+    public void setPoint(int index, FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+
+        if ((index > 0 && point.getX() <= xValues[index - 1]) ||
+                (index < pointsCount - 1 && point.getX() >= xValues[index + 1])) {
+            throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+        }
+
+        xValues[index] = point.getX();
+        yValues[index] = point.getY();
+    }
+
+    @Override
+    public double getPointX(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+        return xValues[index];
+    }
+
+    @Override
+    public void setPointX(int index, double x)
+            throws InappropriateFunctionPointException {
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+
+        if ((index > 0 && x <= xValues[index - 1]) ||
+                (index < pointsCount - 1 && x >= xValues[index + 1])) {
+            throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+        }
+
+        xValues[index] = x;
+    }
+
+    @Override
+    public double getPointY(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+        return yValues[index];
+    }
+
+    @Override
+    public void setPointY(int index, double y) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+        yValues[index] = y;
+    }
+
+    @Override
+    public void deletePoint(int index) {
+        if (pointsCount < 3) {
+            throw new IllegalStateException("Нельзя удалить точку: останется меньше 2 точек");
+        }
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+
+        System.arraycopy(xValues, index + 1, xValues, index, pointsCount - index - 1);
+        System.arraycopy(yValues, index + 1, yValues, index, pointsCount - index - 1);
+        pointsCount--;
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        double x = point.getX();
+
+        int i = 0;
+        while (i < pointsCount && xValues[i] < x) i++;
+
+        if ((i > 0 && Math.abs(xValues[i - 1] - x) < EPS) ||
+                (i < pointsCount && Math.abs(xValues[i] - x) < EPS)) {
+            throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+        }
+
+        if (pointsCount == xValues.length) {
+            xValues = Arrays.copyOf(xValues, xValues.length * 2);
+            yValues = Arrays.copyOf(yValues, yValues.length * 2);
+        }
+
+        System.arraycopy(xValues, i, xValues, i + 1, pointsCount - i);
+        System.arraycopy(yValues, i, yValues, i + 1, pointsCount - i);
+        xValues[i] = x;
+        yValues[i] = point.getY();
+        pointsCount++;
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] newPoints)
+            throws InappropriateFunctionPointException {
+
+        FunctionPoint[] batch = TabulatedFunction.sortedDistinct(newPoints);
+
+        // Слияние в новые массивы; исходные заменяются только после успешной проверки
+        int capacity = pointsCount + batch.length + 10;
+        double[] mergedX = new double[capacity];
+        double[] mergedY = new double[capacity];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        boolean lastFromBatch = false;
+        while (i < pointsCount || j < batch.length) {
+            boolean takeBatch = i == pointsCount ||
+                    (j < batch.length && batch[j].getX() < xValues[i]);
+            double x = takeBatch ? batch[j].getX() : xValues[i];
+
+            if (k > 0 && takeBatch != lastFromBatch && Math.abs(mergedX[k - 1] - x) < EPS) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
+
+            mergedX[k] = x;
+            mergedY[k] = takeBatch ? batch[j++].getY() : yValues[i++];
+            k++;
+            lastFromBatch = takeBatch;
+        }
+
+        xValues = mergedX;
+        yValues = mergedY;
+        pointsCount = k;
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+
+        System.arraycopy(this.xValues, from, xValues, offset, length);
+        System.arraycopy(this.yValues, from, yValues, offset, length);
+    }
+
+    // Заменяет все точки первыми pointsCount значениями массивов, сохраняя
+    // выделенные массивы, если их ёмкости хватает. Используется при потоковом
+    // чтении для повторного использования одного объекта; порядок точек и их
+    // количество проверяются вызывающим кодом
+    void reset(double[] xValues, double[] yValues, int pointsCount) {
+        if (this.xValues.length < pointsCount) {
+            this.xValues = new double[pointsCount + 10];
+            this.yValues = new double[pointsCount + 10];
+        }
+        System.arraycopy(xValues, 0, this.xValues, 0, pointsCount);
+        System.arraycopy(yValues, 0, this.yValues, 0, pointsCount);
+        this.pointsCount = pointsCount;
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("Следующая точка не существует");
+                }
+                FunctionPoint point = new FunctionPoint(xValues[currentIndex], yValues[currentIndex]);
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Операция удаления не поддерживается");
+            }
+        };
+    }
+
+    public static class PrimitiveArrayTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new PrimitiveArrayTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new PrimitiveArrayTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new PrimitiveArrayTabulatedFunction(points);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+            return new PrimitiveArrayTabulatedFunction(xValues, yValues);
+        }
+    }
+
+    public void printPoints() {
+        System.out.println("Массивы координат (всего " + pointsCount + "):");
+        for (int i = 0; i < pointsCount; i++) {
+            System.out.printf("[%d]: [%.2f; %.2f]\n", i, xValues[i], yValues[i]);
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.*;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Связный список точек с индексом в виде списка с пропусками (skip list).
+// Нижний уровень - обычная двусвязная цепочка узлов, как в
+// LinkedListTabulatedFunction; верхние уровни хранят «экспресс-ссылки» и длину
+// каждого перехода, что даёт O(log n) поиск и по X, и по номеру точки.
+// Вставка и удаление перешивают цепочку нижнего уровня за O(1), а индекс
+// обновляется за ожидаемое O(log n)
+public class SkipListTabulatedFunction implements TabulatedFunction, Externalizable {
+    private static final long serialVersionUID = 1L;
+    private static final int MAX_LEVEL = 32;
+
+    protected static class FunctionNode {
+        public FunctionPoint point;
+        public FunctionNode prev;
+        // next[0] - соседний узел, next[l] - следующий узел уровня l
+        public final FunctionNode[] next;
+        // width[l] - на сколько узлов нижнего уровня переходит ссылка next[l]
+        public final int[] width;
+
+        public FunctionNode(FunctionPoint point, int level) {
+            this.point = point;
+            this.next = new FunctionNode[level];
+            this.width = new int[level];
+        }
+    }
+
+    private transient FunctionNode head;
+    private transient FunctionNode tail;
+    private transient int level;
+    private int pointsCount;
+
+    public SkipListTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        double step = (rightX - leftX) / (pointsCount - 1);
+        FunctionPoint[] points = new FunctionPoint[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            points[i] = new FunctionPoint(leftX + i * step, 0);
+        }
+        buildFromSorted(points);
+    }
+
+    public SkipListTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values.length);
+
+        FunctionNode curr = head.next[0];
+        for (int i = 0; i < values.length; i++) {
+            curr.point.setY(values[i]);
+            curr = curr.next[0];
+        }
+    }
+
+    public SkipListTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() <= points[i - 1].getX()) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+
+        FunctionPoint[] copies = new FunctionPoint[points.length];
+        for (int i = 0; i < points.length; i++) {
+            copies[i] = new FunctionPoint(points[i]);
+        }
+        buildFromSorted(copies);
+    }
+
+    public SkipListTabulatedFunction() {
+        buildFromSorted(new FunctionPoint[0]);
+    }
+
+    private static int randomLevel() {
+        // Уровень k выпадает с вероятностью 2^-k
+        int bits = ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1));
+        return Integer.numberOfTrailingZeros(bits) + 1;
+    }
+
+    // Построение индекса по упорядоченным точкам за O(n) без поиска места вставки.
+    // Для ссылки в пустоту ширина равна расстоянию до воображаемого узла после
+    // последнего, тогда вставка и удаление обновляют ширины без особых случаев
+    private void buildFromSorted(FunctionPoint[] points) {
+        head = new FunctionNode(null, MAX_LEVEL);
+        tail = null;
+        level = 1;
+        pointsCount = points.length;
+
+        FunctionNode[] last = new FunctionNode[MAX_LEVEL];
+        int[] lastPosition = new int[MAX_LEVEL];
+        for (int l = 0; l < MAX_LEVEL; l++) {
+            last[l] = head;
+        }
+
+        FunctionNode prev = head;
+        for (int i = 0; i < points.length; i++) {
+            int position = i + 1;
+            int nodeLevel = randomLevel();
+            if (nodeLevel > level) level = nodeLevel;
+
+            FunctionNode node = new FunctionNode(points[i], nodeLevel);
+            node.prev = prev == head ? null : prev;
+            for (int l = 0; l < nodeLevel; l++) {
+                last[l].next[l] = node;
+                last[l].width[l] = position - lastPosition[l];
+                last[l] = node;
+                lastPosition[l] = position;
+            }
+            prev = node;
+        }
+
+        for (int l = 0; l < MAX_LEVEL; l++) {
+            last[l].width[l] = pointsCount + 1 - lastPosition[l];
+        }
+        tail = prev == head ? null : prev;
+    }
+
+    private FunctionNode getNodeByIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+
+        int target = index + 1;
+        int position = 0;
+        FunctionNode node = head;
+        for (int l = level - 1; l >= 0; l--) {
+            while (node.next[l] != null && position + node.width[l] <= target) {
+                position += node.width[l];
+                node = node.next[l];
+            }
+        }
+        return node;
+    }
+
+    // Последний узел с X < x на нижнем уровне (head, если таких нет)
+    private FunctionNode findPredecessor(double x) {
+        FunctionNode node = head;
+        for (int l = level - 1; l >= 0; l--) {
+            while (node.next[l] != null && node.next[l].point.getX() < x) {
+                node = node.next[l];
+            }
+        }
+        return node;
+    }
+
+    private void insertNode(FunctionPoint point) {
+        FunctionNode[] update = new FunctionNode[MAX_LEVEL];
+        int[] updatePosition = new int[MAX_LEVEL];
+        double x = point.getX();
+
+        FunctionNode node = head;
+        int position = 0;
+        for (int l = MAX_LEVEL - 1; l >= 0; l--) {
+            while (l < level && node.next[l] != null && node.next[l].point.getX() < x) {
+                position += node.width[l];
+                node = node.next[l];
+            }
+            update[l] = node;
+            updatePosition[l] = position;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) level = nodeLevel;
+
+        int newPosition = position + 1;
+        FunctionNode newNode = new FunctionNode(point, nodeLevel);
+        for (int l = 0; l < MAX_LEVEL; l++) {
+            FunctionNode before = update[l];
+            if (l < nodeLevel) {
+                int distance = newPosition - updatePosition[l];
+                newNode.next[l] = before.next[l];
+                newNode.width[l] = before.width[l] - distance + 1;
+                before.next[l] = newNode;
+                before.width[l] = distance;
+            } else {
+                before.width[l]++;
+            }
+        }
+
+        // Перешивание нижнего уровня
+        FunctionNode after = newNode.next[0];
+        newNode.prev = update[0] == head ? null : update[0];
+        if (after != null) {
+            after.prev = newNode;
+        } else {
+            tail = newNode;
+        }
+        pointsCount++;
+    }
+
+    private FunctionNode deleteNodeByIndex(int index) {
+        if (pointsCount < 3) {
+            throw new IllegalStateException("Нельзя удалить точку: останется меньше 2 точек");
+        }
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+
+        int target = index + 1;
+        int position = 0;
+        FunctionNode node = head;
+        FunctionNode[] update = new FunctionNode[MAX_LEVEL];
+        for (int l = MAX_LEVEL - 1; l >= 0; l--) {
+            while (l < level && node.next[l] != null && position + node.width[l] < target) {
+                position += node.width[l];
+                node = node.next[l];
+            }
+            update[l] = node;
+        }
+
+        FunctionNode toDelete = update[0].next[0];
+        for (int l = 0; l < MAX_LEVEL; l++) {
+            FunctionNode before = update[l];
+            if (before.next[l] == toDelete) {
+                before.width[l] += toDelete.width[l] - 1;
+                before.next[l] = toDelete.next[l];
+            } else {
+                before.width[l]--;
+            }
+        }
+
+        FunctionNode after = toDelete.next[0];
+        if (after != null) {
+            after.prev = toDelete.prev;
+        } else {
+            tail = toDelete.prev;
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        pointsCount--;
+
+        return toDelete;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return head.next[0].point.getX();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return tail.point.getX();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        double leftBorder = getLeftDomainBorder();
+        double rightBorder = getRightDomainBorder();
+
+        if (x < leftBorder || x > rightBorder) {
+            return Double.NaN;
+        }
+
+        if (Math.abs(x - leftBorder) < 1e-10) {
+            return head.next[0].point.getY();
+        }
+        if (Math.abs(x - rightBorder) < 1e-10) {
+            return tail.point.getY();
+        }
+
+        FunctionNode current = findPredecessor(x).next[0];
+
+        if (Math.abs(current.point.getX() - x) < 1e-10) {
+            return current.point.getY();
+        }
+
+        FunctionPoint left = current.prev.point;
+        FunctionPoint right = current.point;
+        return left.getY() + (right.getY() - left.getY()) *
+                (x - left.getX()) / (right.getX() - left.getX());
+    }
+
+    @Override
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) {
+        return new FunctionPoint(getNodeByIndex(index).point);
+    }
+
+    @Override
+    public void setPoint(int index, FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        FunctionNode node = getNodeByIndex(index);
+
+        if ((node.prev != null && point.getX() <= node.prev.point.getX()) ||
+                (node.next[0] != null && point.getX() >= node.next[0].point.getX())) {
+            throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+        }
+
+        node.point = new FunctionPoint(point);
+    }
+
+    @Override
+    public double getPointX(int index) {
+        return getNodeByIndex(index).point.getX();
+    }
+
+    @Override
+    public void setPointX(int index, double x)
+            throws InappropriateFunctionPointException {
+
+        FunctionNode node = getNodeByIndex(index);
+
+        if ((node.prev != null && x <= node.prev.point.getX()) ||
+                (node.next[0] != null && x >= node.next[0].point.getX())) {
+            throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+        }
+
+        node.point.setX(x);
+    }
+
+    @Override
+    public double getPointY(int index) {
+        return getNodeByIndex(index).point.getY();
+    }
+
+    @Override
+    public void setPointY(int index, double y) {
+        getNodeByIndex(index).point.setY(y);
+    }
+
+    @Override
+    public void deletePoint(int index) {
+        deleteNodeByIndex(index);
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        FunctionNode before = findPredecessor(point.getX());
+        FunctionNode after = before.next[0];
+
+        if ((before != head && Math.abs(before.point.getX() - point.getX()) < 1e-10) ||
+                (after != null && Math.abs(after.point.getX() - point.getX()) < 1e-10)) {
+            throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+        }
+
+        insertNode(new FunctionPoint(point));
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(pointsCount);
+
+        FunctionNode current = head.next[0];
+        while (current != null) {
+            out.writeDouble(current.point.getX());
+            out.writeDouble(current.point.getY());
+            current = current.next[0];
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int count = in.readInt();
+
+        FunctionPoint[] points = new FunctionPoint[count];
+        for (int i = 0; i < count; i++) {
+            double x = in.readDouble();
+            double y = in.readDouble();
+            points[i] = new FunctionPoint(x, y);
+        }
+
+        buildFromSorted(points);
+    }
+
+    public void printPoints() {
+        System.out.println("Список с пропусками (всего " + pointsCount + ", уровней " + level + "):");
+        FunctionNode current = head.next[0];
+        int i = 0;
+        while (current != null) {
+            System.out.printf("[%d]: [%.2f; %.2f]\n",
+                    i++, current.point.getX(), current.point.getY());
+            current = current.next[0];
+        }
+    }
+
+    // ==================== ПЕРЕОПРЕДЕЛЕННЫЕ МЕТОДЫ Object ====================
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+
+        FunctionNode curr = head.next[0];
+        boolean first = true;
+        while (curr != null) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(curr.point.toString());
+            curr = curr.next[0];
+        }
+
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction other = (TabulatedFunction) o;
+
+        if (this.pointsCount != other.getPointsCount()) return false;
+
+        // Обход собственной цепочки вместо поиска по индексу на каждой точке
+        Iterator<FunctionPoint> otherPoints = other.iterator();
+        FunctionNode curr = head.next[0];
+        while (curr != null) {
+            if (!curr.point.equals(otherPoints.next())) {
+                return false;
+            }
+            curr = curr.next[0];
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = pointsCount;
+
+        // XOR хэш-кодов всех точек
+        FunctionNode curr = head.next[0];
+        while (curr != null) {
+            hash ^= curr.point.hashCode();
+            curr = curr.next[0];
+        }
+
+        return hash;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        FunctionPoint[] points = new FunctionPoint[pointsCount];
+        FunctionNode curr = head.next[0];
+        int i = 0;
+        while (curr != null) {
+            points[i++] = new FunctionPoint(curr.point);
+            curr = curr.next[0];
+        }
+
+        SkipListTabulatedFunction cloned = (SkipListTabulatedFunction) super.clone();
+        cloned.buildFromSorted(points);
+        return cloned;
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+        if (length == 0) return;
+
+        FunctionNode node = getNodeByIndex(from);
+        for (int i = 0; i < length; i++) {
+            xValues[offset + i] = node.point.getX();
+            yValues[offset + i] = node.point.getY();
+            node = node.next[0];
+        }
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private FunctionNode currentNode = head.next[0];
+
+            @Override
+            public boolean hasNext() {
+                return currentNode != null;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("No more points in tabulated function");
+                }
+                FunctionPoint point = new FunctionPoint(currentNode.point);
+                currentNode = currentNode.next[0];
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Remove operation is not supported");
+            }
+        };
+    }
+
+    public static class SkipListTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new SkipListTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new SkipListTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new SkipListTabulatedFunction(points);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+// Бинарный ввод-вывод табулированных функций через каналы NIO. Данные
+// передаются крупными блоками через прямой буфер и его представление
+// DoubleBuffer, функция строится фабрикой прямо из массивов X и Y.
+//
+// Два формата:
+//  - основной, совпадающий с writeTabulatedFunction(function, DataOutput):
+//    int - количество точек, затем пары double (x, y), big-endian;
+//  - версионный: заголовок из 16 байт (сигнатура "TABF", версия, порядок
+//    байтов, количество точек), затем все X и все Y в заданном порядке байтов.
+//    При порядке байтов платформы (ByteOrder.nativeOrder()) копирование идёт
+//    без перестановки байтов, а столбцы читаются сразу в массивы X и Y
+final class TabulatedChannels {
+    // Сигнатура версионного формата "TABF"
+    static final int MAGIC = 0x54414246;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final byte BIG_ENDIAN = 0;
+    private static final byte LITTLE_ENDIAN = 1;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    // Прямой буфер на поток: выделение прямой памяти на каждый вызов дороже самой передачи
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_BYTES));
+
+    private TabulatedChannels() {
+    }
+
+    private static ByteBuffer buffer(ByteOrder order) {
+        ByteBuffer buffer = BUFFERS.get();
+        buffer.clear();
+        buffer.order(order);
+        return buffer;
+    }
+
+    // ==================== ОСНОВНОЙ ФОРМАТ ====================
+
+    static void write(TabulatedFunction function, WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        int pointsCount = function.getPointsCount();
+        buffer.putInt(pointsCount);
+
+        int blockSize = Math.min(pointsCount, (BUFFER_BYTES - Integer.BYTES) / (2 * Double.BYTES));
+        double[] xValues = new double[blockSize];
+        double[] yValues = new double[blockSize];
+        double[] pairs = new double[2 * blockSize];
+
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int length = Math.min(blockSize, pointsCount - from);
+            function.copyPoints(from, xValues, yValues, 0, length);
+            for (int i = 0; i < length; i++) {
+                pairs[2 * i] = xValues[i];
+                pairs[2 * i + 1] = yValues[i];
+            }
+
+            if (buffer.remaining() < length * 2 * Double.BYTES) {
+                drain(buffer, out);
+            }
+            buffer.asDoubleBuffer().put(pairs, 0, 2 * length);
+            buffer.position(buffer.position() + length * 2 * Double.BYTES);
+        }
+        drain(buffer, out);
+    }
+
+    static TabulatedFunction read(ReadableByteChannel in, TabulatedFunctionFactory factory) throws IOException {
+        Input input = new Input(in, ByteOrder.BIG_ENDIAN, Integer.BYTES);
+        ByteBuffer buffer = input.buffer;
+        input.require(Integer.BYTES);
+        int pointsCount = buffer.getInt();
+        checkPointsCount(pointsCount);
+        input.expect((long) pointsCount * 2 * Double.BYTES);
+
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        double[] pairs = new double[Math.min(2 * pointsCount, BUFFER_BYTES / Double.BYTES)];
+
+        int i = 0;
+        while (i < pointsCount) {
+            input.require(2 * Double.BYTES);
+            int length = Math.min(pointsCount - i, buffer.remaining() / (2 * Double.BYTES));
+            buffer.asDoubleBuffer().get(pairs, 0, 2 * length);
+            buffer.position(buffer.position() + length * 2 * Double.BYTES);
+
+            for (int k = 0; k < length; k++, i++) {
+                xValues[i] = pairs[2 * k];
+                yValues[i] = pairs[2 * k + 1];
+            }
+        }
+
+        checkOrder(xValues);
+        return factory.createTabulatedFunction(xValues, yValues);
+    }
+
+    // ==================== ВЕРСИОННЫЙ ФОРМАТ ====================
+
+    static void writeVersioned(TabulatedFunction function, WritableByteChannel out, ByteOrder order)
+            throws IOException {
+
+        ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        int pointsCount = function.getPointsCount();
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.put(order == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : BIG_ENDIAN);
+        buffer.put((byte) 0);
+        buffer.order(order);
+        buffer.putInt(pointsCount);
+        buffer.putInt(0);
+
+        // Столбцы X и Y пишутся целиком, копирование из хранилища - блоками
+        int blockSize = Math.min(pointsCount, BUFFER_BYTES / Double.BYTES);
+        double[] xValues = new double[blockSize];
+        double[] yValues = new double[blockSize];
+        for (int column = 0; column < 2; column++) {
+            for (int from = 0; from < pointsCount; from += blockSize) {
+                int length = Math.min(blockSize, pointsCount - from);
+                function.copyPoints(from, xValues, yValues, 0, length);
+                putColumn(column == 0 ? xValues : yValues, length, buffer, out);
+            }
+        }
+        drain(buffer, out);
+    }
+
+    private static void putColumn(double[] values, int length, ByteBuffer buffer, WritableByteChannel out)
+            throws IOException {
+
+        int offset = 0;
+        while (offset < length) {
+            if (buffer.remaining() < Double.BYTES) {
+                drain(buffer, out);
+            }
+            int n = Math.min(length - offset, buffer.remaining() / Double.BYTES);
+            buffer.asDoubleBuffer().put(values, offset, n);
+            buffer.position(buffer.position() + n * Double.BYTES);
+            offset += n;
+        }
+    }
+
+    static TabulatedFunction readVersioned(ReadableByteChannel in, TabulatedFunctionFactory factory)
+            throws IOException {
+
+        Input input = new Input(in, ByteOrder.BIG_ENDIAN, HEADER_BYTES);
+        ByteBuffer buffer = input.buffer;
+        input.require(HEADER_BYTES);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Неизвестный формат: ожидалась сигнатура TABF");
+        }
+        int version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия формата: " + version);
+        }
+        byte orderFlag = buffer.get();
+        if (orderFlag != BIG_ENDIAN && orderFlag != LITTLE_ENDIAN) {
+            throw new IOException("Некорректный порядок байтов: " + orderFlag);
+        }
+        buffer.get();
+        buffer.order(orderFlag == LITTLE_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int pointsCount = buffer.getInt();
+        buffer.getInt();
+        checkPointsCount(pointsCount);
+        input.expect((long) pointsCount * 2 * Double.BYTES);
+
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        getColumn(xValues, input);
+        getColumn(yValues, input);
+
+        checkOrder(xValues);
+        return factory.createTabulatedFunction(xValues, yValues);
+    }
+
+    private static void getColumn(double[] values, Input input) throws IOException {
+        ByteBuffer buffer = input.buffer;
+        int offset = 0;
+        while (offset < values.length) {
+            input.require(Double.BYTES);
+            int n = Math.min(values.length - offset, buffer.remaining() / Double.BYTES);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            doubles.get(values, offset, n);
+            buffer.position(buffer.position() + n * Double.BYTES);
+            offset += n;
+        }
+    }
+
+    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    // Чтение одной записи из канала через буфер. Из канала забирается не больше
+    // байт, чем осталось в записи, поэтому следующая запись того же канала
+    // (например, сокета) остаётся непрочитанной
+    private static final class Input {
+        final ReadableByteChannel in;
+        final ByteBuffer buffer;
+        // Байты записи, ещё не прочитанные из канала
+        private long unread;
+
+        Input(ReadableByteChannel in, ByteOrder order, long unread) {
+            this.in = in;
+            this.buffer = buffer(order);
+            this.buffer.limit(0);
+            this.unread = unread;
+        }
+
+        // Длина записи стала известна из заголовка
+        void expect(long bytes) {
+            unread += bytes;
+        }
+
+        // Дочитывает канал, пока в буфере не окажется не менее required байт
+        void require(int required) throws IOException {
+            if (buffer.remaining() >= required) {
+                return;
+            }
+
+            buffer.compact();
+            buffer.limit(buffer.position() + (int) Math.min(buffer.remaining(), unread));
+            while (buffer.position() < required) {
+                int n = in.read(buffer);
+                if (n < 0) {
+                    throw new EOFException("Неожиданный конец канала");
+                }
+                unread -= n;
+            }
+            buffer.flip();
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void checkPointsCount(int pointsCount) throws IOException {
+        if (pointsCount < 2) {
+            throw new IOException("Количество точек должно быть не менее 2");
+        }
+    }
+
+    private static void checkOrder(double[] xValues) throws IOException {
+        for (int i = 1; i < xValues.length; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IOException("Точки не упорядочены по X");
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Сжатый бинарный формат табулированных функций.
+//
+// X кодируется разностью второго порядка (delta-of-delta) над битовым
+// представлением double: на равномерной сетке разности соседних X отличаются
+// на единицы младшего разряда, и большинство точек занимает 1-6 бит.
+// Y кодируется XOR с предыдущим значением (как в Gorilla): у гладкой функции
+// совпадают знак, порядок и старшие биты мантиссы, и записываются только
+// значащие биты XOR внутри окна из ведущих и конечных нулей.
+// Сжатие без потерь: читаются в точности те же double.
+//
+// Формат (числа заголовков big-endian, как у DataOutput):
+//  int - сигнатура "TABZ", int - количество точек, затем блоки по BLOCK_POINTS
+//  точек (последний может быть короче): int - количество 64-битных слов,
+//  затем слова с битами блока. Состояние кодирования переходит из блока в блок,
+//  каждый блок дополняется нулями до целого слова. Запись и чтение идут
+//  блоками, не требуя всех битов сразу
+final class TabulatedCompression {
+    // Сигнатура сжатого формата "TABZ"
+    static final int MAGIC = 0x5441425A;
+
+    private static final int BLOCK_POINTS = 1024;
+    // Худший случай на точку: X - 4 + 64 бита, Y - 2 + 6 + 6 + 64 бита
+    private static final int MAX_POINT_BITS = 146;
+    private static final int MAX_BLOCK_WORDS = (BLOCK_POINTS * MAX_POINT_BITS + 63) / 64;
+
+    private TabulatedCompression() {
+    }
+
+    // ==================== ЗАПИСЬ ====================
+
+    static void write(TabulatedFunction function, DataOutput out) throws IOException {
+        int pointsCount = function.getPointsCount();
+        out.writeInt(MAGIC);
+        out.writeInt(pointsCount);
+
+        int blockSize = Math.min(pointsCount, BLOCK_POINTS);
+        double[] xValues = new double[blockSize];
+        double[] yValues = new double[blockSize];
+        Encoder encoder = new Encoder();
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int length = Math.min(blockSize, pointsCount - from);
+            function.copyPoints(from, xValues, yValues, 0, length);
+            for (int i = 0; i < length; i++) {
+                encoder.encode(xValues[i], yValues[i]);
+            }
+            encoder.flush(out);
+        }
+    }
+
+    private static final class Encoder {
+        private final long[] words = new long[MAX_BLOCK_WORDS];
+        private final byte[] bytes = new byte[MAX_BLOCK_WORDS * Long.BYTES + Integer.BYTES];
+        private int wordCount;
+        // Незаполненное слово: биты пишутся от старших к младшим, free - свободные младшие биты
+        private long current;
+        private int free = 64;
+
+        private int index;
+        private long previousX;
+        private long previousDelta;
+        private long previousY;
+        // Окно значащих битов последнего ненулевого XOR; -1 - окна ещё нет
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        void encode(double x, double y) {
+            long xBits = Double.doubleToRawLongBits(x);
+            long yBits = Double.doubleToRawLongBits(y);
+
+            if (index == 0) {
+                writeBits(xBits, 64);
+                writeBits(yBits, 64);
+                previousX = xBits;
+                previousY = yBits;
+                index++;
+                return;
+            }
+
+            long delta = xBits - previousX;
+            if (index == 1) {
+                writeBits(delta, 64);
+            } else {
+                encodeDeltaOfDelta(delta - previousDelta);
+            }
+            previousX = xBits;
+            previousDelta = delta;
+
+            encodeXor(yBits ^ previousY);
+            previousY = yBits;
+            index++;
+        }
+
+        private void encodeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                writeBits(0b0, 1);
+            } else if (dod >= -8 && dod <= 7) {
+                writeBits(0b10, 2);
+                writeBits(dod, 4);
+            } else if (dod >= -2048 && dod <= 2047) {
+                writeBits(0b110, 3);
+                writeBits(dod, 12);
+            } else if (dod == (int) dod) {
+                writeBits(0b1110, 4);
+                writeBits(dod, 32);
+            } else {
+                writeBits(0b1111, 4);
+                writeBits(dod, 64);
+            }
+        }
+
+        private void encodeXor(long xor) {
+            if (xor == 0) {
+                writeBits(0b0, 1);
+                return;
+            }
+
+            int leading = Long.numberOfLeadingZeros(xor);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Значащие биты помещаются в окно предыдущего XOR
+                writeBits(0b10, 2);
+                writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                writeBits(0b11, 2);
+                writeBits(leading, 6);
+                writeBits(length - 1, 6);
+                writeBits(xor >>> trailing, length);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        // Младшие count битов value, 1 <= count <= 64
+        private void writeBits(long value, int count) {
+            if (count < 64) {
+                value &= (1L << count) - 1;
+            }
+            if (count <= free) {
+                free -= count;
+                current |= value << free;
+                if (free == 0) {
+                    words[wordCount++] = current;
+                    current = 0;
+                    free = 64;
+                }
+            } else {
+                int rest = count - free;
+                words[wordCount++] = current | value >>> rest;
+                free = 64 - rest;
+                current = value << free;
+            }
+        }
+
+        // Дописывает неполное слово и передаёт блок в поток одним вызовом
+        void flush(DataOutput out) throws IOException {
+            if (free < 64) {
+                words[wordCount++] = current;
+                current = 0;
+                free = 64;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            buffer.putInt(wordCount);
+            buffer.asLongBuffer().put(words, 0, wordCount);
+            out.write(bytes, 0, Integer.BYTES + wordCount * Long.BYTES);
+            wordCount = 0;
+        }
+    }
+
+    // ==================== ЧТЕНИЕ ====================
+
+    static TabulatedFunction read(DataInput in, TabulatedFunctionFactory factory) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Неизвестный формат: ожидалась сигнатура TABZ");
+        }
+        int pointsCount = in.readInt();
+        if (pointsCount < 2) {
+            throw new IOException("Количество точек должно быть не менее 2");
+        }
+
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        Decoder decoder = new Decoder();
+        for (int from = 0; from < pointsCount; from += BLOCK_POINTS) {
+            int to = Math.min(pointsCount, from + BLOCK_POINTS);
+            decoder.fill(in);
+            for (int i = from; i < to; i++) {
+                decoder.decode();
+                xValues[i] = Double.longBitsToDouble(decoder.previousX);
+                yValues[i] = Double.longBitsToDouble(decoder.previousY);
+            }
+        }
+
+        for (int i = 1; i < pointsCount; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IOException("Точки не упорядочены по X");
+            }
+        }
+        return factory.createTabulatedFunction(xValues, yValues);
+    }
+
+    private static final class Decoder {
+        private final long[] words = new long[MAX_BLOCK_WORDS];
+        private final byte[] bytes = new byte[MAX_BLOCK_WORDS * Long.BYTES];
+        private int wordCount;
+        private int wordIndex;
+        // Текущее слово и количество ещё не прочитанных его младших битов
+        private long current;
+        private int available;
+
+        private int index;
+        private long previousX;
+        private long previousDelta;
+        private long previousY;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        // Читает следующий блок слов
+        void fill(DataInput in) throws IOException {
+            int count = in.readInt();
+            if (count < 0 || count > MAX_BLOCK_WORDS) {
+                throw new IOException("Повреждённые сжатые данные: некорректный размер блока " + count);
+            }
+            in.readFully(bytes, 0, count * Long.BYTES);
+            ByteBuffer.wrap(bytes, 0, count * Long.BYTES).asLongBuffer().get(words, 0, count);
+            wordCount = count;
+            wordIndex = 0;
+            available = 0;
+        }
+
+        void decode() throws IOException {
+            if (index == 0) {
+                previousX = readBits(64);
+                previousY = readBits(64);
+                index++;
+                return;
+            }
+
+            long delta;
+            if (index == 1) {
+                delta = readBits(64);
+            } else {
+                delta = previousDelta + decodeDeltaOfDelta();
+            }
+            previousX += delta;
+            previousDelta = delta;
+
+            previousY ^= decodeXor();
+            index++;
+        }
+
+        private long decodeDeltaOfDelta() throws IOException {
+            if (readBits(1) == 0) {
+                return 0;
+            }
+            if (readBits(1) == 0) {
+                return signed(readBits(4), 4);
+            }
+            if (readBits(1) == 0) {
+                return signed(readBits(12), 12);
+            }
+            if (readBits(1) == 0) {
+                return signed(readBits(32), 32);
+            }
+            return readBits(64);
+        }
+
+        private long decodeXor() throws IOException {
+            if (readBits(1) == 0) {
+                return 0;
+            }
+            if (readBits(1) == 0) {
+                if (previousLeading < 0) {
+                    throw new IOException("Повреждённые сжатые данные: нет окна значащих битов");
+                }
+                return readBits(64 - previousLeading - previousTrailing) << previousTrailing;
+            }
+
+            int leading = (int) readBits(6);
+            int length = (int) readBits(6) + 1;
+            if (leading + length > 64) {
+                throw new IOException("Повреждённые сжатые данные: некорректное окно значащих битов");
+            }
+            previousLeading = leading;
+            previousTrailing = 64 - leading - length;
+            return readBits(length) << previousTrailing;
+        }
+
+        private static long signed(long value, int count) {
+            return value << (64 - count) >> (64 - count);
+        }
+
+        // Следующие count битов, 1 <= count <= 64
+        private long readBits(int count) throws IOException {
+            long result;
+            if (count <= available) {
+                available -= count;
+                result = current >>> available;
+            } else {
+                int rest = count - available;
+                result = available == 0 ? 0 : current << rest;
+                if (wordIndex == wordCount) {
+                    throw new IOException("Повреждённые сжатые данные: блок закончился раньше точек");
+                }
+                current = words[wordIndex++];
+                available = 64 - rest;
+                result |= current >>> available;
+            }
+            return count == 64 ? result : result & ((1L << count) - 1);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Архив из многих именованных табулированных функций в одном файле.
+//
+// Формат файла версии 2 (все числа big-endian):
+//  - заголовок: int - сигнатура "TABA", int - версия, long - смещение
+//    действующего индекса, int - количество записей в нём, int - контрольное
+//    слово (смещение, количество и сигнатура, сложенные XOR);
+//  - записи функций и индексы в порядке записи, каждая запись в формате
+//    TabulatedFunctions.writeTabulatedFunction(function, DataOutput):
+//    int - количество точек, затем пары double (x, y);
+//  - индекс: для каждой записи UTF-строка ключа, long - смещение записи
+//    от начала файла, long - длина записи в байтах.
+//
+// При открытии читается только индекс, функция по ключу отображается в память
+// через MappedTabulatedFunction и затрагивает лишь страницы своей записи.
+// Файл только дописывается: новые записи, а при flush() или close() - новый
+// индекс идут в конец файла, и лишь после сброса их на диск заголовок
+// переключается на новый индекс. Прежние записи и индекс не затираются,
+// поэтому при сбое между put и flush архив открывается в состоянии последнего
+// flush, а недописанные данные в конце файла не используются. Запись с уже
+// существующим ключом заменяет прежнюю в индексе; байты прежних записей и
+// индексов остаются в файле неиспользуемыми.
+//
+// Архивы версии 1 (индекс и хвост с его смещением в конце файла)
+// открываются только для чтения
+public final class TabulatedFunctionArchive implements Closeable {
+    // Сигнатура архива "TABA"
+    private static final int MAGIC = 0x54414241;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    // Версия 1: заголовок из сигнатуры и версии, хвост в конце файла
+    private static final int LEGACY_VERSION = 1;
+    private static final int LEGACY_HEADER_BYTES = 8;
+    private static final int LEGACY_TAIL_BYTES = 16;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    // Ключ -> {смещение, длина}; порядок - порядок добавления
+    private final Map<String, long[]> index = new LinkedHashMap<>();
+    // Конец файла: позиция следующей записи или нового индекса
+    private long endOffset;
+    private boolean dirty;
+
+    private TabulatedFunctionArchive(FileChannel channel, boolean writable) {
+        this.channel = channel;
+        this.writable = writable;
+    }
+
+    // ==================== ОТКРЫТИЕ ====================
+
+    // Создаёт пустой архив; существующий файл перезаписывается
+    public static TabulatedFunctionArchive create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        TabulatedFunctionArchive archive = new TabulatedFunctionArchive(channel, true);
+        try {
+            archive.endOffset = HEADER_BYTES;
+            archive.dirty = true;
+            archive.flush();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    // Открывает существующий архив для чтения и добавления записей
+    public static TabulatedFunctionArchive open(Path file) throws IOException {
+        return open(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE), true);
+    }
+
+    public static TabulatedFunctionArchive openReadOnly(Path file) throws IOException {
+        return open(FileChannel.open(file, StandardOpenOption.READ), false);
+    }
+
+    private static TabulatedFunctionArchive open(FileChannel channel, boolean writable) throws IOException {
+        TabulatedFunctionArchive archive = new TabulatedFunctionArchive(channel, writable);
+        try {
+            archive.readIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    private void readIndex() throws IOException {
+        long size = channel.size();
+        if (size < LEGACY_HEADER_BYTES) {
+            throw new IOException("Файл слишком короткий для архива табулированных функций");
+        }
+
+        ByteBuffer signature = ByteBuffer.allocate(LEGACY_HEADER_BYTES);
+        readFully(channel, signature, 0);
+        if (signature.getInt(0) != MAGIC) {
+            throw new IOException("Неизвестный формат: ожидалась сигнатура TABA");
+        }
+        int version = signature.getInt(4);
+
+        long offset;
+        int count;
+        long dataStart;
+        if (version == VERSION) {
+            if (size < HEADER_BYTES) {
+                throw new IOException("Файл слишком короткий для архива табулированных функций");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            offset = header.getLong(8);
+            count = header.getInt(16);
+            if (header.getInt(20) != checkWord(offset, count)) {
+                throw new IOException("Повреждён заголовок архива: неверное контрольное слово");
+            }
+            dataStart = HEADER_BYTES;
+        } else if (version == LEGACY_VERSION) {
+            if (writable) {
+                throw new IOException("Архив версии 1 можно открыть только для чтения");
+            }
+            if (size < LEGACY_HEADER_BYTES + LEGACY_TAIL_BYTES) {
+                throw new IOException("Файл слишком короткий для архива табулированных функций");
+            }
+            ByteBuffer tail = ByteBuffer.allocate(LEGACY_TAIL_BYTES);
+            readFully(channel, tail, size - LEGACY_TAIL_BYTES);
+            offset = tail.getLong(0);
+            count = tail.getInt(8);
+            if (tail.getInt(12) != MAGIC) {
+                throw new IOException("Повреждён хвост архива: индекс не найден");
+            }
+            dataStart = LEGACY_HEADER_BYTES;
+        } else {
+            throw new IOException("Неподдерживаемая версия формата: " + version);
+        }
+        if (offset < dataStart || offset > size || count < 0) {
+            throw new IOException("Повреждён заголовок архива: некорректное положение индекса");
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(offset))));
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            long entryOffset = in.readLong();
+            long entryLength = in.readLong();
+            if (entryOffset < dataStart || entryLength < 4 || entryOffset + entryLength > offset) {
+                throw new IOException("Запись \"" + key + "\" выходит за границы данных архива");
+            }
+            index.put(key, new long[]{entryOffset, entryLength});
+        }
+        endOffset = size;
+    }
+
+    private static int checkWord(long indexOffset, int count) {
+        return (int) indexOffset ^ (int) (indexOffset >>> 32) ^ count ^ MAGIC;
+    }
+
+    // ==================== ЧТЕНИЕ ====================
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    // Ключи в порядке добавления
+    public synchronized Set<String> keys() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(index.keySet()));
+    }
+
+    // Функция по ключу, отображённая в память, или null, если ключа нет.
+    // Отображение остаётся действительным и после закрытия архива
+    public synchronized TabulatedFunction get(String key) throws IOException {
+        long[] entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return new MappedTabulatedFunction(channel, entry[0]);
+    }
+
+    // Функция по ключу, прочитанная в память указанной фабрикой
+    public synchronized TabulatedFunction get(String key, TabulatedFunctionFactory factory) throws IOException {
+        long[] entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return TabulatedChannels.read(channel.position(entry[0]), factory);
+    }
+
+    // ==================== ЗАПИСЬ ====================
+
+    // Добавляет функцию под ключом. Запись сразу дописывается в конец файла,
+    // индекс - при flush() или close(); до этого архив на диске остаётся
+    // в состоянии последнего flush
+    public synchronized void put(String key, TabulatedFunction function) throws IOException {
+        if (!writable) {
+            throw new UnsupportedOperationException("Архив открыт только для чтения");
+        }
+        if (key == null) {
+            throw new NullPointerException("Ключ не может быть null");
+        }
+
+        long offset = endOffset;
+        TabulatedChannels.write(function, channel.position(offset));
+        long length = channel.position() - offset;
+        index.put(key, new long[]{offset, length});
+        endOffset = offset + length;
+        dirty = true;
+    }
+
+    // Дописывает индекс после последней записи, сбрасывает записи и индекс
+    // на диск и только затем переключает на него заголовок
+    public synchronized void flush() throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        long offset = endOffset;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(channel.position(offset))));
+        for (Map.Entry<String, long[]> entry : index.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue()[0]);
+            out.writeLong(entry.getValue()[1]);
+        }
+        out.flush();
+        long end = channel.position();
+        channel.force(false);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(offset).putInt(index.size())
+                .putInt(checkWord(offset, index.size())).flip();
+        writeFully(channel, header, 0);
+        channel.force(false);
+
+        endOffset = end;
+        dirty = false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (writable && channel.isOpen()) {
+                flush();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new IOException("Неожиданный конец файла архива");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
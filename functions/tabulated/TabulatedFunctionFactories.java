@@ -0,0 +1,235 @@
+package functions.tabulated;
+
+import functions.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Реестр фабрик по классу табулированной функции для методов TabulatedFunctions,
+// принимающих Class. Класс сопоставляется с фабрикой один раз, дальше фабрика
+// берётся из ClassValue без поиска конструкторов и упаковки аргументов.
+//
+// Источники фабрик по порядку приоритета:
+//  - зарегистрированные методом register;
+//  - встроенные реализации, вызывающие конструкторы напрямую;
+//  - фабрики, объявленные через ServiceLoader для TabulatedFunctionFactory
+//    (класс функций определяет getTabulatedFunctionClass());
+//  - для остальных классов - фабрика на MethodHandle публичных конструкторов
+//    (double, double, int), (double, double, double[]) и (FunctionPoint[]),
+//    найденных один раз. Ошибки те же, что у прежнего вызова через рефлексию
+public final class TabulatedFunctionFactories {
+    private static final Map<Class<?>, TabulatedFunctionFactory> REGISTERED = new ConcurrentHashMap<>();
+    // Таблица тегов для самоописывающих форматов: полное имя класса -> фабрика.
+    // Заполняется вместе с REGISTERED и при первом обращении к классу через
+    // getFactory, поэтому чтение по тегу обходится без Class.forName
+    private static final Map<String, TabulatedFunctionFactory> TAGS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<TabulatedFunctionFactory> RESOLVED = new ClassValue<TabulatedFunctionFactory>() {
+        @Override
+        protected TabulatedFunctionFactory computeValue(Class<?> type) {
+            TabulatedFunctionFactory registered = REGISTERED.get(type);
+            if (registered != null) {
+                return registered;
+            }
+            TabulatedFunctionFactory factory = new ConstructorFactory(type);
+            TAGS.putIfAbsent(type.getName(), factory);
+            return factory;
+        }
+    };
+
+    static {
+        REGISTERED.put(ArrayTabulatedFunction.class, new ArrayTabulatedFunction.ArrayTabulatedFunctionFactory());
+        REGISTERED.put(LinkedListTabulatedFunction.class,
+                new LinkedListTabulatedFunction.LinkedListTabulatedFunctionFactory());
+        REGISTERED.put(PrimitiveArrayTabulatedFunction.class,
+                new PrimitiveArrayTabulatedFunction.PrimitiveArrayTabulatedFunctionFactory());
+        REGISTERED.put(SkipListTabulatedFunction.class, new SkipListTabulatedFunction.SkipListTabulatedFunctionFactory());
+        REGISTERED.put(ConcurrentTabulatedFunction.class,
+                new ConcurrentTabulatedFunction.ConcurrentTabulatedFunctionFactory());
+        REGISTERED.put(ImmutableTabulatedFunction.class,
+                new ImmutableTabulatedFunction.ImmutableTabulatedFunctionFactory());
+        // UniformGridTabulatedFunctionFactory для неравномерных точек создаёт
+        // другой класс, а здесь нужен именно UniformGridTabulatedFunction
+        REGISTERED.put(UniformGridTabulatedFunction.class, new TabulatedFunctionFactory() {
+            @Override
+            public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+                return new UniformGridTabulatedFunction(leftX, rightX, pointsCount);
+            }
+
+            @Override
+            public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+                return new UniformGridTabulatedFunction(leftX, rightX, values);
+            }
+
+            @Override
+            public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+                return new UniformGridTabulatedFunction(points);
+            }
+
+            @Override
+            public TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+                return new UniformGridTabulatedFunction(xValues, yValues);
+            }
+        });
+
+        // Фабрики из META-INF/services/functions.TabulatedFunctionFactory;
+        // некорректно объявленные пропускаются, встроенные не заменяются
+        Iterator<TabulatedFunctionFactory> providers =
+                ServiceLoader.load(TabulatedFunctionFactory.class).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) break;
+                TabulatedFunctionFactory provided = providers.next();
+                REGISTERED.putIfAbsent(provided.getTabulatedFunctionClass(), provided);
+            } catch (ServiceConfigurationError | RuntimeException e) {
+                // пропускаем фабрику, которую не удалось загрузить
+            }
+        }
+
+        for (Map.Entry<Class<?>, TabulatedFunctionFactory> entry : REGISTERED.entrySet()) {
+            TAGS.put(entry.getKey().getName(), entry.getValue());
+        }
+    }
+
+    private TabulatedFunctionFactories() {
+        throw new UnsupportedOperationException("Нельзя создавать экземпляры утилитного класса");
+    }
+
+    // Регистрирует фабрику для класса функций, заменяя прежнюю. Фабрика
+    // должна создавать экземпляры именно этого класса
+    public static void register(Class<? extends TabulatedFunction> clazz, TabulatedFunctionFactory factory) {
+        validateClass(clazz);
+        if (factory == null) {
+            throw new IllegalArgumentException("Фабрика не может быть null");
+        }
+
+        REGISTERED.put(clazz, factory);
+        TAGS.put(clazz.getName(), factory);
+        RESOLVED.remove(clazz);
+    }
+
+    // Фабрика, создающая экземпляры класса clazz
+    public static TabulatedFunctionFactory getFactory(Class<? extends TabulatedFunction> clazz) {
+        validateClass(clazz);
+        return RESOLVED.get(clazz);
+    }
+
+    // Фабрика по тегу - полному имени класса, как его пишет
+    // writeTabulatedFunction(function, Writer, Class), - или null, если класс
+    // не встроенный, не зарегистрирован и ещё не запрашивался через getFactory
+    public static TabulatedFunctionFactory findFactory(String className) {
+        return TAGS.get(className);
+    }
+
+    static void validateClass(Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("Класс не может быть null");
+        }
+
+        if (!TabulatedFunction.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("Класс " + clazz.getSimpleName() + " не реализует интерфейс TabulatedFunction");
+        }
+    }
+
+    // ==================== ФАБРИКА НА КОНСТРУКТОРАХ ====================
+
+    private static final class ConstructorFactory implements TabulatedFunctionFactory {
+        private final Class<?> type;
+        private final Creator byCount;
+        private final Creator byValues;
+        private final Creator byPoints;
+
+        ConstructorFactory(Class<?> type) {
+            this.type = type;
+            this.byCount = new Creator(type, "(double, double, int)", double.class, double.class, int.class);
+            this.byValues = new Creator(type, "(double, double, double[])", double.class, double.class, double[].class);
+            this.byPoints = new Creator(type, "(FunctionPoint[])", FunctionPoint[].class);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            try {
+                return (TabulatedFunction) byCount.handle().invokeExact(leftX, rightX, pointsCount);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Ошибка в конструкторе", e);
+            }
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            try {
+                return (TabulatedFunction) byValues.handle().invokeExact(leftX, rightX, values);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Ошибка в конструкторе", e);
+            }
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            try {
+                return (TabulatedFunction) byPoints.handle().invokeExact(points);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Ошибка в конструкторе", e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Class<? extends TabulatedFunction> getTabulatedFunctionClass() {
+            return (Class<? extends TabulatedFunction>) type;
+        }
+    }
+
+    // Конструктор с заданными параметрами в виде MethodHandle, приведённого
+    // к типу (параметры)TabulatedFunction, или причина, по которой вызвать его нельзя
+    private static final class Creator {
+        private final MethodHandle handle;
+        private final String error;
+        private final Exception cause;
+
+        Creator(Class<?> type, String signature, Class<?>... parameterTypes) {
+            MethodHandle found = null;
+            String message = null;
+            Exception reason = null;
+            try {
+                Constructor<?> constructor = type.getConstructor(parameterTypes);
+                if (Modifier.isAbstract(type.getModifiers())) {
+                    message = "Не удалось создать экземпляр класса " + type.getSimpleName();
+                    reason = new InstantiationException(type.getName());
+                } else {
+                    found = MethodHandles.lookup().unreflectConstructor(constructor)
+                            .asType(MethodType.methodType(TabulatedFunction.class, parameterTypes));
+                }
+            } catch (NoSuchMethodException e) {
+                message = "Класс " + type.getSimpleName() + " не имеет конструктора " + signature;
+                reason = e;
+            } catch (IllegalAccessException e) {
+                message = "Не удалось создать экземпляр класса " + type.getSimpleName();
+                reason = e;
+            }
+            this.handle = found;
+            this.error = message;
+            this.cause = reason;
+        }
+
+        MethodHandle handle() {
+            if (handle == null) {
+                throw new IllegalArgumentException(error, cause);
+            }
+            return handle;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Массовая загрузка файлов с табулированными функциями (по одной функции на
+// файл) на пуле из фиксированного числа потоков. Каждый поток читает файл
+// целиком и сразу разбирает его из памяти, поэтому ожидание диска одними
+// потоками перекрывается разбором в других, а в памяти одновременно находится
+// не больше файлов, чем потоков. Ошибка в файле не прерывает загрузку:
+// она попадает в Result.getFailures() под путём файла
+public final class TabulatedFunctionLoader {
+
+    // Формат файлов и соответствующий метод чтения TabulatedFunctions
+    public enum Format {
+        // readTabulatedFunction(Reader, factory)
+        TEXT,
+        // readTabulatedFunction(ReadableByteChannel, factory)
+        BINARY,
+        // readCompressedTabulatedFunction(DataInput, factory)
+        COMPRESSED,
+        // readTypedTabulatedFunction(Reader): класс из файла, фабрика не используется
+        TYPED_TEXT,
+        // readTypedTabulatedFunction(DataInput): класс из файла, фабрика не используется
+        TYPED_BINARY
+    }
+
+    private final Format format;
+    private final TabulatedFunctionFactory factory;
+    private final int threads;
+
+    public TabulatedFunctionLoader(Format format, TabulatedFunctionFactory factory) {
+        this(format, factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TabulatedFunctionLoader(Format format, TabulatedFunctionFactory factory, int threads) {
+        if (format == null) {
+            throw new IllegalArgumentException("Формат не может быть null");
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException("Фабрика не может быть null");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть не менее 1");
+        }
+        this.format = format;
+        this.factory = factory;
+        this.threads = threads;
+    }
+
+    // ==================== ЗАГРУЗКА ====================
+
+    // Все обычные файлы каталога (без подкаталогов)
+    public Result loadDirectory(Path directory) throws IOException {
+        return loadDirectory(directory, "*");
+    }
+
+    // Файлы каталога, имена которых подходят под шаблон glob, например "*.bin"
+    public Result loadDirectory(Path directory, String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, glob)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+        Collections.sort(files);
+        return load(files);
+    }
+
+    // Загружает файлы списка; ключ результата - путь файла в том виде, в каком
+    // он передан (для loadDirectory - каталог и имя), поэтому одноимённые
+    // файлы из разных каталогов различаются. Повторы одного пути загружаются один раз
+    public Result load(Collection<Path> files) throws InterruptedIOException {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, files.size())),
+                new LoaderThreadFactory());
+        Map<Path, Future<Loaded>> tasks = new LinkedHashMap<>();
+        Map<Path, Exception> failures = new LinkedHashMap<>();
+        try {
+            for (Path file : files) {
+                if (!tasks.containsKey(file)) {
+                    tasks.put(file, pool.submit(() -> load(file)));
+                }
+            }
+
+            Map<Path, TabulatedFunction> functions = new LinkedHashMap<>();
+            long bytes = 0;
+            for (Map.Entry<Path, Future<Loaded>> task : tasks.entrySet()) {
+                try {
+                    Loaded loaded = task.getValue().get();
+                    bytes += loaded.bytes;
+                    if (loaded.failure != null) {
+                        failures.put(task.getKey(), loaded.failure);
+                    } else {
+                        functions.put(task.getKey(), loaded.function);
+                    }
+                } catch (ExecutionException e) {
+                    // Ошибки (Error) при разборе файла
+                    Throwable cause = e.getCause();
+                    failures.put(task.getKey(), cause instanceof Exception ? (Exception) cause : e);
+                }
+            }
+            return new Result(functions, failures, bytes, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка прервана");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Результат загрузки одного файла: функция или ошибка и количество прочитанных байтов
+    private static final class Loaded {
+        final TabulatedFunction function;
+        final Exception failure;
+        final long bytes;
+
+        Loaded(TabulatedFunction function, Exception failure, long bytes) {
+            this.function = function;
+            this.failure = failure;
+            this.bytes = bytes;
+        }
+    }
+
+    private Loaded load(Path file) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException | RuntimeException e) {
+            return new Loaded(null, e, 0);
+        }
+
+        try {
+            return new Loaded(parse(content), null, content.length);
+        } catch (IOException | RuntimeException e) {
+            return new Loaded(null, e, content.length);
+        }
+    }
+
+    private TabulatedFunction parse(byte[] content) throws IOException {
+        switch (format) {
+            case TEXT:
+                return TabulatedFunctions.readTabulatedFunction(textReader(content), factory);
+            case BINARY:
+                return TabulatedFunctions.readTabulatedFunction(
+                        Channels.newChannel(new ByteArrayInputStream(content)), factory);
+            case COMPRESSED:
+                return TabulatedFunctions.readCompressedTabulatedFunction(
+                        new DataInputStream(new ByteArrayInputStream(content)), factory);
+            case TYPED_TEXT:
+                return TabulatedFunctions.readTypedTabulatedFunction(textReader(content));
+            case TYPED_BINARY:
+                return TabulatedFunctions.readTypedTabulatedFunction(
+                        new DataInputStream(new ByteArrayInputStream(content)));
+            default:
+                throw new IllegalStateException("Неизвестный формат: " + format);
+        }
+    }
+
+    private static BufferedReader textReader(byte[] content) {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8));
+    }
+
+    // Потоки-демоны: незавершённая загрузка не мешает завершению программы
+    private static final class LoaderThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task,
+                    "tabulated-loader-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    // ==================== РЕЗУЛЬТАТ ====================
+
+    public static final class Result {
+        private final Map<Path, TabulatedFunction> functions;
+        private final Map<Path, Exception> failures;
+        private final long bytesRead;
+        private final long elapsedNanos;
+
+        Result(Map<Path, TabulatedFunction> functions, Map<Path, Exception> failures,
+               long bytesRead, long elapsedNanos) {
+            this.functions = Collections.unmodifiableMap(functions);
+            this.failures = Collections.unmodifiableMap(failures);
+            this.bytesRead = bytesRead;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Загруженные функции по пути файла в порядке списка файлов
+        public Map<Path, TabulatedFunction> getFunctions() {
+            return functions;
+        }
+
+        // Ошибки по пути файла; загрузка остальных файлов при этом продолжается
+        public Map<Path, Exception> getFailures() {
+            return failures;
+        }
+
+        public int getFilesProcessed() {
+            return functions.size() + failures.size();
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getFilesPerSecond() {
+            return getFilesProcessed() / seconds();
+        }
+
+        public double getMegabytesPerSecond() {
+            return bytesRead / 1e6 / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(elapsedNanos, 1) / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Загружено %d из %d файлов (%.1f МБ) за %.1f мс: %.0f файлов/с, %.1f МБ/с",
+                    functions.size(), getFilesProcessed(), bytesRead / 1e6, elapsedNanos / 1e6,
+                    getFilesPerSecond(), getMegabytesPerSecond());
+        }
+    }
+}
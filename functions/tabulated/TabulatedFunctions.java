@@ -2,13 +2,32 @@ package functions.tabulated;
 
 import functions.*;
 import java.io.*;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class TabulatedFunctions {
-    // Фабрика для создания табулированных функций
+    // Фабрика для создания табулированных функций. По умолчанию равномерные сетки
+    // (в том числе результаты tabulate) получают представление с O(1) вычислением,
+    // остальные - примитивное хранилище как наиболее быстрое для чтения
     private static TabulatedFunctionFactory factory =
-            new ArrayTabulatedFunction.ArrayTabulatedFunctionFactory();
+            new UniformGridTabulatedFunction.UniformGridTabulatedFunctionFactory();
+
+    // Размер блока точек и буфера символов при записи текстового формата
+    private static final int TEXT_BLOCK_POINTS = 1024;
+    private static final int TEXT_BUFFER_CHARS = 8192;
+    // Размер блока точек, копируемых из исходной функции при уточнении сетки
+    private static final int REFINE_BLOCK_POINTS = 1024;
+    // Размер блока аргументов при пакетном вычислении функции на сетке
+    private static final int GRID_BLOCK_POINTS = 1024;
 
     private TabulatedFunctions() {
         throw new UnsupportedOperationException("Нельзя создавать экземпляры утилитного класса");
@@ -22,107 +41,38 @@ public final class TabulatedFunctions {
     }
 
     // ==================== МЕТОДЫ РЕФЛЕКСИИ ====================
+    // Фабрика для класса находится в реестре TabulatedFunctionFactories один раз,
+    // повторные вызовы стоят столько же, сколько вызовы методов фабрики
     public static TabulatedFunction createTabulatedFunction(
             Class<? extends TabulatedFunction> clazz,
             double leftX, double rightX, int pointsCount) {
 
-        validateClass(clazz);
-
-        try {
-            Constructor<? extends TabulatedFunction> constructor =
-                    clazz.getConstructor(double.class, double.class, int.class);
-            return constructor.newInstance(leftX, rightX, pointsCount);
-
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                    "Класс " + clazz.getSimpleName() + " не имеет конструктора (double, double, int)", e);
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new IllegalArgumentException("Не удалось создать экземпляр класса " + clazz.getSimpleName(), e);
-        } catch (InvocationTargetException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else {
-                throw new IllegalArgumentException("Ошибка в конструкторе", cause);
-            }
-        }
+        return TabulatedFunctionFactories.getFactory(clazz).createTabulatedFunction(leftX, rightX, pointsCount);
     }
 
     public static TabulatedFunction createTabulatedFunction(
             Class<? extends TabulatedFunction> clazz,
             double leftX, double rightX, double[] values) {
 
-        validateClass(clazz);
-
-        try {
-            Constructor<? extends TabulatedFunction> constructor =
-                    clazz.getConstructor(double.class, double.class, double[].class);
-            return constructor.newInstance(leftX, rightX, values);
-
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                    "Класс " + clazz.getSimpleName() + " не имеет конструктора (double, double, double[])", e);
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new IllegalArgumentException("Не удалось создать экземпляр класса " + clazz.getSimpleName(), e);
-        } catch (InvocationTargetException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else {
-                throw new IllegalArgumentException("Ошибка в конструкторе", cause);
-            }
-        }
+        return TabulatedFunctionFactories.getFactory(clazz).createTabulatedFunction(leftX, rightX, values);
     }
 
     public static TabulatedFunction createTabulatedFunction(
             Class<? extends TabulatedFunction> clazz,
             FunctionPoint[] points) {
 
-        validateClass(clazz);
-
-        try {
-            Constructor<? extends TabulatedFunction> constructor =
-                    clazz.getConstructor(FunctionPoint[].class);
-            return constructor.newInstance((Object) points);
-
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                    "Класс " + clazz.getSimpleName() + " не имеет конструктора (FunctionPoint[])", e);
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new IllegalArgumentException("Не удалось создать экземпляр класса " + clazz.getSimpleName(), e);
-        } catch (InvocationTargetException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else {
-                throw new IllegalArgumentException("Ошибка в конструкторе", cause);
-            }
-        }
+        return TabulatedFunctionFactories.getFactory(clazz).createTabulatedFunction(points);
     }
 
     public static TabulatedFunction tabulate(Class<? extends TabulatedFunction> clazz, Function f, double leftX, double rightX, int pointsCount) {
-
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
-        }
-        if (leftX >= rightX) {
-            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
-        }
-        if (leftX < f.getLeftDomainBorder() || rightX > f.getRightDomainBorder()) {
-            throw new IllegalArgumentException("Интервал выходит за границы области определения функции");
-        }
+        checkTabulationArguments(f, leftX, rightX, pointsCount);
 
         // Используем рефлексивный метод создания
         TabulatedFunction tabulatedFunc = createTabulatedFunction(clazz, leftX, rightX, pointsCount);
 
-        double step = (rightX - leftX) / (pointsCount - 1);
+        double[] values = evaluateGrid(f, leftX, rightX, pointsCount);
         for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            double y = f.getFunctionValue(x);
-            if (Double.isNaN(y)) {
-                throw new IllegalArgumentException("Функция не определена в точке x=" + x);
-            }
-            tabulatedFunc.setPointY(i, y);
+            tabulatedFunc.setPointY(i, values[i]);
         }
 
         return tabulatedFunc;
@@ -130,41 +80,107 @@ public final class TabulatedFunctions {
 
     public static TabulatedFunction tabulate(
             Function f, double leftX, double rightX, int pointsCount) {
+        checkTabulationArguments(f, leftX, rightX, pointsCount);
 
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
-        }
-        if (leftX >= rightX) {
-            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
-        }
-        if (leftX < f.getLeftDomainBorder() || rightX > f.getRightDomainBorder()) {
-            throw new IllegalArgumentException("Интервал выходит за границы области определения функции");
-        }
+        // Значения вычисляются пакетно и передаются фабрике одним массивом
+        return factory.createTabulatedFunction(leftX, rightX, evaluateGrid(f, leftX, rightX, pointsCount));
+    }
 
-        // Используем фабрику для создания
-        TabulatedFunction tabulatedFunc = createTabulatedFunction(leftX, rightX, pointsCount);
+    // ==================== ПАРАЛЛЕЛЬНОЕ ТАБУЛИРОВАНИЕ ====================
+    // Значения считаются в общий массив на ForkJoinPool блоками фиксированного
+    // размера, затем функция создаётся фабрикой из массива за один вызов.
+    // Результат и сообщение об ошибке совпадают с tabulate при любом числе
+    // потоков. Функция f должна допускать одновременные вызовы
 
-        double step = (rightX - leftX) / (pointsCount - 1);
-        for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            double y = f.getFunctionValue(x);
-            if (Double.isNaN(y)) {
-                throw new IllegalArgumentException("Функция не определена в точке x=" + x);
-            }
-            tabulatedFunc.setPointY(i, y);
-        }
+    public static TabulatedFunction tabulateParallel(Function f, double leftX, double rightX, int pointsCount) {
+        return tabulateParallel(f, leftX, rightX, pointsCount, ForkJoinPool.commonPool());
+    }
 
-        return tabulatedFunc;
+    public static TabulatedFunction tabulateParallel(Function f, double leftX, double rightX, int pointsCount,
+                                                     ForkJoinPool pool) {
+        checkTabulationArguments(f, leftX, rightX, pointsCount);
+        return factory.createTabulatedFunction(leftX, rightX,
+                ParallelTabulation.evaluate(f, leftX, rightX, pointsCount, pool));
     }
 
-    private static void validateClass(Class<?> clazz) {
-        if (clazz == null) {
-            throw new IllegalArgumentException("Класс не может быть null");
+    public static TabulatedFunction tabulateParallel(Class<? extends TabulatedFunction> clazz, Function f,
+                                                     double leftX, double rightX, int pointsCount) {
+        checkTabulationArguments(f, leftX, rightX, pointsCount);
+        TabulatedFunctionFactory classFactory = TabulatedFunctionFactories.getFactory(clazz);
+        return classFactory.createTabulatedFunction(leftX, rightX,
+                ParallelTabulation.evaluate(f, leftX, rightX, pointsCount, ForkJoinPool.commonPool()));
+    }
+
+    // ==================== АДАПТИВНОЕ ТАБУЛИРОВАНИЕ ====================
+    // Точки сгущаются там, где функция сильнее отклоняется от линейной
+    // интерполяции: погрешность tolerance достигается меньшим числом точек,
+    // чем на равномерной сетке. Функция создаётся текущей фабрикой
+
+    public static AdaptiveTabulation tabulateAdaptive(Function f, double leftX, double rightX,
+                                                      double tolerance, int maxPoints) {
+        checkTabulationArguments(f, leftX, rightX, maxPoints);
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Допустимая погрешность должна быть положительной");
+        }
+        return AdaptiveTabulation.tabulate(f, leftX, rightX, tolerance, maxPoints, factory);
+    }
+
+    // ==================== УТОЧНЕНИЕ СЕТКИ ====================
+    // Каждый интервал табулированной функции делится на factor равных частей.
+    // Существующие точки переносятся как есть, исходная функция вычисляется
+    // только в новых: при factor = 2 это (n - 1) вычислений против 2n - 1
+    // у повторного tabulate. Новое хранилище заполняется за один проход и
+    // передаётся текущей фабрике целиком
+
+    public static TabulatedFunction refine(TabulatedFunction tabulated, Function source, int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("Коэффициент уточнения должен быть не менее 1");
+        }
+        double leftX = tabulated.getLeftDomainBorder();
+        double rightX = tabulated.getRightDomainBorder();
+        if (leftX < source.getLeftDomainBorder() || rightX > source.getRightDomainBorder()) {
+            throw new IllegalArgumentException("Интервал выходит за границы области определения функции");
         }
 
-        if (!TabulatedFunction.class.isAssignableFrom(clazz)) {
-            throw new IllegalArgumentException("Класс " + clazz.getSimpleName() + " не реализует интерфейс TabulatedFunction");
+        int pointsCount = tabulated.getPointsCount();
+        int refinedCount;
+        try {
+            refinedCount = Math.addExact(Math.multiplyExact(pointsCount - 1, factor), 1);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Слишком много точек после уточнения");
+        }
+
+        // Равномерная сетка остаётся равномерной: новые X вычисляются как у
+        // tabulate(leftX, rightX, refinedCount), и если старые X совпадают с
+        // этой сеткой побитово, фабрика сохраняет представление с O(1)
+        // вычислением. Старые точки в любом случае не сдвигаются
+        double gridStep = tabulated instanceof UniformGridTabulatedFunction
+                && ((UniformGridTabulatedFunction) tabulated).isUniform()
+                ? (rightX - leftX) / (refinedCount - 1) : Double.NaN;
+
+        double[] xValues = new double[refinedCount];
+        double[] yValues = new double[refinedCount];
+        // Исходные точки читаются блоками и сразу ставятся через factor позиций,
+        // промежуток до предыдущей точки заполняется новыми значениями
+        int blockSize = Math.min(pointsCount, REFINE_BLOCK_POINTS);
+        double[] blockX = new double[blockSize];
+        double[] blockY = new double[blockSize];
+        int position = 0;
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int length = Math.min(blockSize, pointsCount - from);
+            tabulated.copyPoints(from, blockX, blockY, 0, length);
+
+            for (int i = 0; i < length; i++) {
+                xValues[position] = blockX[i];
+                yValues[position] = blockY[i];
+                if (position > 0) {
+                    fillInterval(source, xValues, yValues, position - factor, factor, gridStep);
+                }
+                position += factor;
+            }
         }
+
+        return factory.createTabulatedFunction(xValues, yValues);
     }
 
     // ==================== ОСНОВНЫЕ МЕТОДЫ ФАБРИКИ ====================
@@ -197,79 +213,27 @@ public final class TabulatedFunctions {
         return factory.createTabulatedFunction(points);
     }
 
+    public static TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues.length != yValues.length) {
+            throw new IllegalArgumentException("Массивы X и Y должны быть одинаковой длины");
+        }
+        if (xValues.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        return factory.createTabulatedFunction(xValues, yValues);
+    }
+
     public static void writeTabulatedFunction(TabulatedFunction function, Writer out)
             throws IOException {
 
-        PrintWriter writer = new PrintWriter(out);
-        writer.print(function.getPointsCount());
-
-        for (int i = 0; i < function.getPointsCount(); i++) {
-            writer.print(" " + function.getPointX(i));
-            writer.print(" " + function.getPointY(i));
-        }
-
-        writer.println();
-        writer.flush();
+        writeTextPoints(function, out, null);
     }
 
     public static TabulatedFunction readTabulatedFunction(Reader in)
             throws IOException {
 
-        StreamTokenizer tokenizer = createTokenizer(in);
-
-        tokenizer.nextToken();
-        if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-            throw new IOException("Ожидалось количество точек");
-        }
-
-        int pointsCount;
-        try {
-            pointsCount = Integer.parseInt(tokenizer.sval);
-        } catch (NumberFormatException e) {
-            throw new IOException("Некорректное количество точек: " + tokenizer.sval);
-        }
-
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
-        }
-
-        FunctionPoint[] points = new FunctionPoint[pointsCount];
-
-        for (int i = 0; i < pointsCount; i++) {
-            tokenizer.nextToken();
-            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-                throw new IOException("Ожидалось значение X для точки " + (i+1));
-            }
-
-            double x;
-            try {
-                x = Double.parseDouble(tokenizer.sval);
-            } catch (NumberFormatException e) {
-                throw new IOException("Некорректное значение X: " + tokenizer.sval);
-            }
-
-            tokenizer.nextToken();
-            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-                throw new IOException("Ожидалось значение Y для точки " + (i+1));
-            }
-
-            double y;
-            try {
-                y = Double.parseDouble(tokenizer.sval);
-            } catch (NumberFormatException e) {
-                throw new IOException("Некорректное значение Y: " + tokenizer.sval);
-            }
-
-            points[i] = new FunctionPoint(x, y);
-        }
-
-        for (int i = 1; i < pointsCount; i++) {
-            if (points[i].getX() <= points[i-1].getX()) {
-                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
-            }
-        }
-
-        return new ArrayTabulatedFunction(points);
+        double[][] values = readTextPoints(in, false);
+        return new ArrayTabulatedFunction(toPoints(values[0], values[1]));
     }
 
     // Метод для записи в бинарный поток
@@ -306,174 +270,406 @@ public final class TabulatedFunctions {
         return new ArrayTabulatedFunction(points);
     }
 
-    // ==================== ПЕРЕГРУЖЕННЫЕ МЕТОДЫ СЕРИАЛИЗАЦИИ ====================
+    // Запись в канал в том же бинарном формате, что и в DataOutput, крупными блоками
+    public static void writeTabulatedFunction(TabulatedFunction function, WritableByteChannel out)
+            throws IOException {
+        TabulatedChannels.write(function, out);
+    }
 
-    public static TabulatedFunction readTabulatedFunction(Reader in, TabulatedFunctionFactory factory)
+    // Чтение из канала бинарного формата DataOutput; функция создаётся текущей фабрикой
+    public static TabulatedFunction readTabulatedFunction(ReadableByteChannel in)
             throws IOException {
+        return TabulatedChannels.read(in, factory);
+    }
 
-        StreamTokenizer tokenizer = createTokenizer(in);
+    public static TabulatedFunction readTabulatedFunction(ReadableByteChannel in, TabulatedFunctionFactory factory)
+            throws IOException {
+        return TabulatedChannels.read(in, factory);
+    }
 
-        tokenizer.nextToken();
-        if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-            throw new IOException("Ожидалось количество точек");
-        }
+    // Запись в версионном бинарном формате с заголовком и заданным порядком байтов;
+    // ByteOrder.nativeOrder() даёт копирование без перестановки байтов
+    public static void writeVersionedTabulatedFunction(TabulatedFunction function, WritableByteChannel out,
+                                                       ByteOrder order) throws IOException {
+        TabulatedChannels.writeVersioned(function, out, order);
+    }
 
-        int pointsCount;
-        try {
-            pointsCount = Integer.parseInt(tokenizer.sval);
-        } catch (NumberFormatException e) {
-            throw new IOException("Некорректное количество точек: " + tokenizer.sval);
-        }
+    // Чтение версионного бинарного формата; порядок байтов берётся из заголовка
+    public static TabulatedFunction readVersionedTabulatedFunction(ReadableByteChannel in)
+            throws IOException {
+        return TabulatedChannels.readVersioned(in, factory);
+    }
 
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
-        }
+    public static TabulatedFunction readVersionedTabulatedFunction(ReadableByteChannel in,
+                                                                   TabulatedFunctionFactory factory)
+            throws IOException {
+        return TabulatedChannels.readVersioned(in, factory);
+    }
 
-        FunctionPoint[] points = new FunctionPoint[pointsCount];
+    // Запись в сжатом бинарном формате: delta-of-delta для X и XOR для Y.
+    // На равномерных сетках с гладкими значениями занимает в разы меньше
+    // 16 байт на точку основного формата; чтение восстанавливает точки без потерь
+    public static void writeCompressedTabulatedFunction(TabulatedFunction function, DataOutput out)
+            throws IOException {
+        TabulatedCompression.write(function, out);
+    }
 
-        for (int i = 0; i < pointsCount; i++) {
-            tokenizer.nextToken();
-            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-                throw new IOException("Ожидалось значение X для точки " + (i+1));
-            }
+    public static TabulatedFunction readCompressedTabulatedFunction(DataInput in)
+            throws IOException {
+        return TabulatedCompression.read(in, factory);
+    }
 
-            double x = parseDoubleSafe(tokenizer.sval, "X");
+    public static TabulatedFunction readCompressedTabulatedFunction(DataInput in, TabulatedFunctionFactory factory)
+            throws IOException {
+        return TabulatedCompression.read(in, factory);
+    }
 
-            tokenizer.nextToken();
-            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-                throw new IOException("Ожидалось значение Y для точки " + (i+1));
-            }
+    // Открытие файла в бинарном формате без чтения: функция вычисляется прямо
+    // по отображённому в память файлу и доступна только для чтения
+    public static TabulatedFunction mapTabulatedFunction(Path file) throws IOException {
+        return new MappedTabulatedFunction(file);
+    }
 
-            double y = parseDoubleSafe(tokenizer.sval, "Y");
+    // ==================== ПОТОКОВОЕ ЧТЕНИЕ МНОГИХ ФУНКЦИЙ ====================
+
+    // Ленивый поток функций из источника, в котором записи идут одна за другой
+    // (например, записанных подряд writeTabulatedFunction). Очередная запись
+    // разбирается только при запросе следующего элемента, буферы разбора
+    // переиспользуются, поэтому память не зависит от размера источника.
+    // Ошибки ввода-вывода передаются как UncheckedIOException. Источник не
+    // закрывается; для текстового формата close() потока возвращает в Reader
+    // символы, прочитанные сверх последней записи, если Reader поддерживает mark
+    public static Stream<TabulatedFunction> streamTabulatedFunctions(Reader in) {
+        return streamTabulatedFunctions(in, factory);
+    }
 
-            points[i] = new FunctionPoint(x, y);
-        }
+    public static Stream<TabulatedFunction> streamTabulatedFunctions(Reader in, TabulatedFunctionFactory factory) {
+        return stream(new TabulatedRecordReader.Text(in, false), factory);
+    }
 
-        for (int i = 1; i < pointsCount; i++) {
-            if (points[i].getX() <= points[i-1].getX()) {
-                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
-            }
-        }
+    public static Stream<TabulatedFunction> streamTabulatedFunctions(DataInput in) {
+        return streamTabulatedFunctions(in, factory);
+    }
 
-        return factory.createTabulatedFunction(points);
+    public static Stream<TabulatedFunction> streamTabulatedFunctions(DataInput in, TabulatedFunctionFactory factory) {
+        return stream(new TabulatedRecordReader.Binary(in), factory);
+    }
+
+    // Канал читается блоками с опережением и должен использоваться только этим потоком
+    public static Stream<TabulatedFunction> streamTabulatedFunctions(ReadableByteChannel in) {
+        return streamTabulatedFunctions(in, factory);
+    }
+
+    public static Stream<TabulatedFunction> streamTabulatedFunctions(ReadableByteChannel in,
+                                                                     TabulatedFunctionFactory factory) {
+        return stream(new TabulatedRecordReader.Channel(in), factory);
+    }
+
+    // Передаёт каждую запись источника в action и возвращает количество записей.
+    // Для всех записей используется один и тот же объект функции, содержимое
+    // которого заменяется перед каждым вызовом: после чтения первой записи новые
+    // объекты не создаются. Сохранять ссылку на функцию после возврата из action
+    // нельзя - при необходимости её нужно скопировать
+    public static long forEachTabulatedFunction(Reader in, Consumer<? super TabulatedFunction> action)
+            throws IOException {
+        return forEach(new TabulatedRecordReader.Text(in, false), action);
+    }
+
+    public static long forEachTabulatedFunction(DataInput in, Consumer<? super TabulatedFunction> action)
+            throws IOException {
+        return forEach(new TabulatedRecordReader.Binary(in), action);
+    }
+
+    public static long forEachTabulatedFunction(ReadableByteChannel in, Consumer<? super TabulatedFunction> action)
+            throws IOException {
+        return forEach(new TabulatedRecordReader.Channel(in), action);
+    }
+
+    // ==================== ПЕРЕГРУЖЕННЫЕ МЕТОДЫ СЕРИАЛИЗАЦИИ ====================
+
+    public static TabulatedFunction readTabulatedFunction(Reader in, TabulatedFunctionFactory factory)
+            throws IOException {
+
+        double[][] values = readTextPoints(in, false);
+        return factory.createTabulatedFunction(values[0], values[1]);
     }
 
     public static TabulatedFunction readTabulatedFunction(Reader in, Class<? extends TabulatedFunction> clazz)
             throws IOException {
 
-        StreamTokenizer tokenizer = createTokenizer(in);
+        double[][] values = readTextPoints(in, true); // пропускаем имя класса
 
-        tokenizer.nextToken(); // пропускаем имя класса
-        tokenizer.nextToken(); // Читаем количество точек
-        if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-            throw new IOException("Ожидалось количество точек");
+        try {
+            return TabulatedFunctionFactories.getFactory(clazz).createTabulatedFunction(values[0], values[1]);
+        } catch (Exception e) {
+            throw new IOException("Не удалось создать экземпляр класса " + clazz.getName(), e);
         }
+    }
 
-        int pointsCount;
+    public static void writeTabulatedFunction(TabulatedFunction function, Writer out,
+                                              TabulatedFunctionFactory factory) throws IOException {
+        writeTextPoints(function, out, null);
+    }
+
+    public static void writeTabulatedFunction(TabulatedFunction function, Writer out,
+                                              Class<? extends TabulatedFunction> clazz)
+            throws IOException {
+        writeTextPoints(function, out, clazz.getName());
+    }
+
+    // ==================== САМООПИСЫВАЮЩИЕ ФОРМАТЫ ====================
+
+    // Текстовый формат с тегом: полное имя класса функции, затем точки, как у
+    // writeTabulatedFunction(function, Writer, Class) с классом самой функции
+    public static void writeTypedTabulatedFunction(TabulatedFunction function, Writer out)
+            throws IOException {
+        writeTextPoints(function, out, function.getClass().getName());
+    }
+
+    // Чтение записи с тегом класса: функция создаётся фабрикой, найденной по
+    // тегу в таблице TabulatedFunctionFactories, без Class.forName и рефлексии.
+    // Запись читается целиком до поиска фабрики, поэтому после ошибки
+    // о неизвестном классе поток стоит на начале следующей записи
+    public static TabulatedFunction readTypedTabulatedFunction(Reader in)
+            throws IOException {
+
+        TabulatedRecordReader.Text reader = new TabulatedRecordReader.Text(in, true);
         try {
-            pointsCount = Integer.parseInt(tokenizer.sval);
-        } catch (NumberFormatException e) {
-            throw new IOException("Некорректное количество точек: " + tokenizer.sval);
+            reader.read(false);
+        } finally {
+            reader.finish();
         }
+        return factoryForTag(reader.className).createTabulatedFunction(reader.xValues, reader.yValues);
+    }
 
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+    // Бинарный формат с тегом: writeUTF(имя класса), затем запись в формате
+    // writeTabulatedFunction(function, DataOutput)
+    public static void writeTypedTabulatedFunction(TabulatedFunction function, DataOutput out)
+            throws IOException {
+        out.writeUTF(function.getClass().getName());
+        TabulatedSerialization.writePoints(function, out);
+    }
+
+    public static TabulatedFunction readTypedTabulatedFunction(DataInput in)
+            throws IOException {
+
+        String className = in.readUTF();
+        TabulatedRecordReader.Binary reader = new TabulatedRecordReader.Binary(in);
+        int pointsCount = reader.next();
+        if (pointsCount < 0) {
+            throw new EOFException("Ожидалось количество точек");
         }
+        return factoryForTag(className).createTabulatedFunction(reader.xValues, reader.yValues);
+    }
 
-        FunctionPoint[] points = new FunctionPoint[pointsCount];
+    private static TabulatedFunctionFactory factoryForTag(String className) throws IOException {
+        TabulatedFunctionFactory factory = TabulatedFunctionFactories.findFactory(className);
+        if (factory == null) {
+            throw new IOException("Неизвестный класс табулированной функции: " + className);
+        }
+        return factory;
+    }
 
-        for (int i = 0; i < pointsCount; i++) {
-            tokenizer.nextToken();
-            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-                throw new IOException("Ожидалось значение X для точки " + (i+1));
+// ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    // Значения в factor - 1 точках, делящих интервал между индексами
+    // start и start + factor на равные части. gridStep - шаг равномерной сетки
+    // от xValues[0] или NaN для произвольной; узлы сетки используются, только
+    // если оба конца интервала совпадают с ней побитово
+    private static void fillInterval(Function source, double[] xValues, double[] yValues, int start, int factor,
+                                     double gridStep) {
+        double left = xValues[start];
+        double right = xValues[start + factor];
+        double step = (right - left) / factor;
+        boolean onGrid = left == xValues[0] + start * gridStep
+                && right == xValues[0] + (start + factor) * gridStep;
+        for (int k = 1; k < factor; k++) {
+            double x = onGrid ? xValues[0] + (start + k) * gridStep : left + k * step;
+            if (x <= xValues[start + k - 1] || x >= right) {
+                throw new IllegalArgumentException("Интервал [" + left + "; " + right + "] слишком мал для уточнения");
+            }
+            double y = source.getFunctionValue(x);
+            if (Double.isNaN(y)) {
+                throw new IllegalArgumentException("Функция не определена в точке x=" + x);
             }
+            xValues[start + k] = x;
+            yValues[start + k] = y;
+        }
+    }
 
-            double x = parseDoubleSafe(tokenizer.sval, "X");
+    // Значения f в pointsCount точках leftX + i * step равномерной сетки
+    static double[] evaluateGrid(Function f, double leftX, double rightX, int pointsCount) {
+        double step = (rightX - leftX) / (pointsCount - 1);
+        double[] values = new double[pointsCount];
+        int index = evaluateGrid(f, leftX, step, values, 0, pointsCount);
+        if (index < pointsCount) {
+            throw new IllegalArgumentException("Функция не определена в точке x=" + (leftX + index * step));
+        }
+        return values;
+    }
 
-            tokenizer.nextToken();
-            if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-                throw new IOException("Ожидалось значение Y для точки " + (i+1));
+    // Заполняет values[from, to) значениями f в точках leftX + i * step через
+    // пакетный getFunctionValues блоками по GRID_BLOCK_POINTS точек. Возвращает
+    // индекс первой точки, где функция не определена, или to; блоки после неё
+    // не вычисляются
+    static int evaluateGrid(Function f, double leftX, double step, double[] values, int from, int to) {
+        int blockSize = Math.min(to - from, GRID_BLOCK_POINTS);
+        double[] xValues = new double[blockSize];
+        double[] yValues = new double[blockSize];
+        for (int start = from; start < to; start += blockSize) {
+            int length = Math.min(blockSize, to - start);
+            for (int k = 0; k < length; k++) {
+                xValues[k] = leftX + (start + k) * step;
             }
+            f.getFunctionValues(xValues, yValues, 0, length);
 
-            double y = parseDoubleSafe(tokenizer.sval, "Y");
-
-            points[i] = new FunctionPoint(x, y);
+            for (int k = 0; k < length; k++) {
+                if (Double.isNaN(yValues[k])) {
+                    return start + k;
+                }
+            }
+            System.arraycopy(yValues, 0, values, start, length);
         }
+        return to;
+    }
 
-        for (int i = 1; i < pointsCount; i++) {
-            if (points[i].getX() <= points[i-1].getX()) {
-                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
-            }
+    static void checkTabulationArguments(Function f, double leftX, double rightX, int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
         }
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (leftX < f.getLeftDomainBorder() || rightX > f.getRightDomainBorder()) {
+            throw new IllegalArgumentException("Интервал выходит за границы области определения функции");
+        }
+    }
 
+    // Разбор текстового формата: количество точек, затем пары X Y через пробельные
+    // символы. Из потока забирается ровно столько символов, сколько забирал
+    // прежний разбор через StreamTokenizer. Возвращает {xValues, yValues}
+    private static double[][] readTextPoints(Reader in, boolean skipClassName) throws IOException {
+        TabulatedRecordReader.Text reader = new TabulatedRecordReader.Text(in, skipClassName);
         try {
-            Constructor<? extends TabulatedFunction> constructor =
-                    clazz.getConstructor(FunctionPoint[].class);
-            return constructor.newInstance((Object) points);
-        } catch (Exception e) {
-            throw new IOException("Не удалось создать экземпляр класса " + clazz.getName(), e);
+            reader.read(false);
+        } finally {
+            reader.finish();
         }
+        return new double[][] {reader.xValues, reader.yValues};
     }
 
-    public static void writeTabulatedFunction(TabulatedFunction function, Writer out,
-                                              TabulatedFunctionFactory factory) throws IOException {
-        PrintWriter writer = new PrintWriter(out);
+    private static Stream<TabulatedFunction> stream(TabulatedRecordReader records,
+                                                    TabulatedFunctionFactory factory) {
+        Spliterator<TabulatedFunction> spliterator = new Spliterators.AbstractSpliterator<TabulatedFunction>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean finished = false;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super TabulatedFunction> action) {
+                if (finished) {
+                    return false;
+                }
+
+                int pointsCount;
+                try {
+                    pointsCount = records.next();
+                    if (pointsCount < 0) {
+                        finished = true;
+                        records.finish();
+                        return false;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                action.accept(factory.createTabulatedFunction(
+                        Arrays.copyOf(records.xValues, pointsCount),
+                        Arrays.copyOf(records.yValues, pointsCount)));
+                return true;
+            }
+        };
 
-        writer.print(function.getPointsCount());
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                records.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 
-        for (int i = 0; i < function.getPointsCount(); i++) {
-            writer.print(" " + function.getPointX(i));
-            writer.print(" " + function.getPointY(i));
-        }
+    private static long forEach(TabulatedRecordReader records, Consumer<? super TabulatedFunction> action)
+            throws IOException {
 
-        writer.println();
-        writer.flush();
+        PrimitiveArrayTabulatedFunction function = null;
+        long count = 0;
+        try {
+            int pointsCount;
+            while ((pointsCount = records.next()) >= 0) {
+                if (function == null) {
+                    function = new PrimitiveArrayTabulatedFunction(
+                            Arrays.copyOf(records.xValues, pointsCount),
+                            Arrays.copyOf(records.yValues, pointsCount));
+                } else {
+                    function.reset(records.xValues, records.yValues, pointsCount);
+                }
+                action.accept(function);
+                count++;
+            }
+        } finally {
+            records.finish();
+        }
+        return count;
     }
 
-    public static void writeTabulatedFunction(TabulatedFunction function, Writer out,
-                                              Class<? extends TabulatedFunction> clazz)
+    // Запись текстового формата: [заголовок] количество точек, затем " X Y" для
+    // каждой точки и перевод строки. Точки копируются из хранилища блоками,
+    // числа форматируются кратчайшей однозначной записью прямо в
+    // переиспользуемый массив символов, который целиком передаётся в поток
+    private static void writeTextPoints(TabulatedFunction function, Writer out, String header)
             throws IOException {
-        PrintWriter writer = new PrintWriter(out);
 
-        writer.print(clazz.getName() + " ");
-        writer.print(function.getPointsCount());
-
-        for (int i = 0; i < function.getPointsCount(); i++) {
-            writer.print(" " + function.getPointX(i));
-            writer.print(" " + function.getPointY(i));
+        if (header != null) {
+            out.write(header);
+            out.write(' ');
         }
 
-        writer.println();
-        writer.flush();
+        int pointsCount = function.getPointsCount();
+        int blockSize = Math.min(pointsCount, TEXT_BLOCK_POINTS);
+        double[] xValues = new double[blockSize];
+        double[] yValues = new double[blockSize];
+
+        // Запас в конце буфера на одну точку: два числа и два пробела
+        char[] chars = new char[TEXT_BUFFER_CHARS + 2 * (TabulatedTextFormatter.MAX_CHARS + 1)];
+        out.write(Integer.toString(pointsCount));
+
+        int position = 0;
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int length = Math.min(blockSize, pointsCount - from);
+            function.copyPoints(from, xValues, yValues, 0, length);
+
+            for (int i = 0; i < length; i++) {
+                chars[position++] = ' ';
+                position = TabulatedTextFormatter.format(xValues[i], chars, position);
+                chars[position++] = ' ';
+                position = TabulatedTextFormatter.format(yValues[i], chars, position);
+                if (position >= TEXT_BUFFER_CHARS) {
+                    out.write(chars, 0, position);
+                    position = 0;
+                }
+            }
+        }
+        out.write(chars, 0, position);
+        out.write(System.lineSeparator());
+        out.flush();
     }
 
-// ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
-
-    private static StreamTokenizer createTokenizer(Reader in) {
-        StreamTokenizer tokenizer = new StreamTokenizer(in);
-        tokenizer.resetSyntax();
-        tokenizer.wordChars('a', 'z');
-        tokenizer.wordChars('A', 'Z');
-        tokenizer.wordChars('0', '9');
-        tokenizer.wordChars('.', '.');
-        tokenizer.wordChars('-', '-');
-        tokenizer.wordChars('_', '_');
-        tokenizer.wordChars('$', '$');
-        tokenizer.wordChars('[', '[');
-        tokenizer.wordChars(']', ']');
-        tokenizer.whitespaceChars(' ', ' ');
-        tokenizer.whitespaceChars('\t', '\t');
-        tokenizer.whitespaceChars('\n', '\n');
-        tokenizer.whitespaceChars('\r', '\r');
-        return tokenizer;
-    }
-
-    private static double parseDoubleSafe(String value, String fieldName) throws IOException {
-        try {
-            return Double.parseDouble(value);
-        } catch (NumberFormatException e) {
-            throw new IOException("Некорректное значение " + fieldName + ": " + value);
+    private static FunctionPoint[] toPoints(double[] xValues, double[] yValues) {
+        FunctionPoint[] points = new FunctionPoint[xValues.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new FunctionPoint(xValues[i], yValues[i]);
         }
+        return points;
     }
 
 }
\ No newline at end of file
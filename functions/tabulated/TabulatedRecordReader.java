@@ -0,0 +1,236 @@
+package functions.tabulated;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+// Последовательное чтение записей табулированных функций, идущих в источнике
+// одна за другой. Координаты очередной записи кладутся в переиспользуемые
+// массивы xValues и yValues, которые растут до размера наибольшей записи,
+// поэтому расход памяти не зависит от количества записей в источнике
+abstract class TabulatedRecordReader {
+    double[] xValues = new double[0];
+    double[] yValues = new double[0];
+
+    // Читает следующую запись и возвращает количество её точек
+    // или -1, если источник закончился ровно на границе записи
+    abstract int next() throws IOException;
+
+    // Возвращает в источник прочитанные сверх записей данные, если это возможно
+    void finish() throws IOException {
+    }
+
+    // Массивы растут точно до pointsCount: при чтении единственной записи
+    // они не требуют последующего копирования
+    final void ensureCapacity(int pointsCount) {
+        if (xValues.length < pointsCount) {
+            xValues = new double[pointsCount];
+            yValues = new double[pointsCount];
+        }
+    }
+
+    // ==================== ТЕКСТОВЫЙ ФОРМАТ ====================
+
+    // Записи текстового формата: [имя класса] количество точек, затем пары X Y.
+    // Ошибки те же, что у TabulatedFunctions.readTabulatedFunction(Reader)
+    static final class Text extends TabulatedRecordReader {
+        private final TabulatedTextParser parser;
+        private final boolean withClassName;
+        // Имя класса из последней записи, если записи начинаются с него
+        String className;
+
+        Text(Reader in, boolean withClassName) {
+            this.parser = new TabulatedTextParser(in);
+            this.withClassName = withClassName;
+        }
+
+        @Override
+        int next() throws IOException {
+            return read(true);
+        }
+
+        // allowEnd = false: конец потока вместо записи - ошибка, как при чтении одной функции
+        int read(boolean allowEnd) throws IOException {
+            if (withClassName) {
+                parser.nextWord();
+                className = parser.word();
+            }
+            if (!parser.nextWord()) {
+                if (allowEnd && parser.atEnd()) {
+                    return -1;
+                }
+                throw new IOException("Ожидалось количество точек");
+            }
+
+            int pointsCount;
+            try {
+                pointsCount = parser.parseInt();
+            } catch (NumberFormatException e) {
+                throw new IOException("Некорректное количество точек: " + parser.word());
+            }
+
+            if (pointsCount < 2) {
+                throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+            }
+
+            ensureCapacity(pointsCount);
+            double[] xValues = this.xValues;
+            double[] yValues = this.yValues;
+            for (int i = 0; i < pointsCount; i++) {
+                if (!parser.nextWord()) {
+                    throw new IOException("Ожидалось значение X для точки " + (i+1));
+                }
+                xValues[i] = parseDouble("X");
+
+                if (!parser.nextWord()) {
+                    throw new IOException("Ожидалось значение Y для точки " + (i+1));
+                }
+                yValues[i] = parseDouble("Y");
+            }
+
+            for (int i = 1; i < pointsCount; i++) {
+                if (xValues[i] <= xValues[i-1]) {
+                    throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+                }
+            }
+            return pointsCount;
+        }
+
+        private double parseDouble(String fieldName) throws IOException {
+            try {
+                return parser.parseDouble();
+            } catch (NumberFormatException e) {
+                throw new IOException("Некорректное значение " + fieldName + ": " + parser.word());
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            parser.finish();
+        }
+    }
+
+    // ==================== БИНАРНЫЙ ФОРМАТ ====================
+
+    // Записи формата writeTabulatedFunction(function, DataOutput) из DataInput
+    static final class Binary extends TabulatedRecordReader {
+        private final DataInput in;
+
+        Binary(DataInput in) {
+            this.in = in;
+        }
+
+        @Override
+        int next() throws IOException {
+            int firstByte;
+            try {
+                firstByte = in.readUnsignedByte();
+            } catch (EOFException e) {
+                // Конец потока до начала записи - штатное окончание
+                return -1;
+            }
+            // Конец потока внутри количества точек - обрезанный файл, как в Channel
+            int pointsCount;
+            try {
+                pointsCount = firstByte << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
+            } catch (EOFException e) {
+                throw new EOFException("Неожиданный конец потока внутри количества точек");
+            }
+            checkPointsCount(pointsCount);
+
+            ensureCapacity(pointsCount);
+            double[] xValues = this.xValues;
+            double[] yValues = this.yValues;
+            for (int i = 0; i < pointsCount; i++) {
+                xValues[i] = in.readDouble();
+                yValues[i] = in.readDouble();
+            }
+            checkOrder(xValues, pointsCount);
+            return pointsCount;
+        }
+    }
+
+    // Записи того же формата из канала. Канал читается крупными блоками с
+    // опережением, поэтому данные за последней прочитанной записью остаются
+    // в буфере: канал должен принадлежать только этому читателю
+    static final class Channel extends TabulatedRecordReader {
+        private static final int BUFFER_BYTES = 1 << 16;
+
+        private final ReadableByteChannel in;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        private final double[] pairs = new double[BUFFER_BYTES / Double.BYTES];
+
+        Channel(ReadableByteChannel in) {
+            this.in = in;
+            buffer.limit(0);
+        }
+
+        @Override
+        int next() throws IOException {
+            if (!require(Integer.BYTES, true)) {
+                return -1;
+            }
+            int pointsCount = buffer.getInt();
+            checkPointsCount(pointsCount);
+
+            ensureCapacity(pointsCount);
+            double[] xValues = this.xValues;
+            double[] yValues = this.yValues;
+            int i = 0;
+            while (i < pointsCount) {
+                require(2 * Double.BYTES, false);
+                int length = Math.min(pointsCount - i, buffer.remaining() / (2 * Double.BYTES));
+                buffer.asDoubleBuffer().get(pairs, 0, 2 * length);
+                buffer.position(buffer.position() + length * 2 * Double.BYTES);
+
+                for (int k = 0; k < length; k++, i++) {
+                    xValues[i] = pairs[2 * k];
+                    yValues[i] = pairs[2 * k + 1];
+                }
+            }
+            checkOrder(xValues, pointsCount);
+            return pointsCount;
+        }
+
+        // Дочитывает канал, пока в буфере не окажется не менее required байт.
+        // false - канал закончился, не дав ни одного байта, и allowEnd = true
+        private boolean require(int required, boolean allowEnd) throws IOException {
+            if (buffer.remaining() >= required) {
+                return true;
+            }
+
+            buffer.compact();
+            while (buffer.position() < required) {
+                if (in.read(buffer) < 0) {
+                    if (allowEnd && buffer.position() == 0) {
+                        buffer.flip();
+                        return false;
+                    }
+                    throw new EOFException("Неожиданный конец канала");
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+
+    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    private static void checkPointsCount(int pointsCount) throws IOException {
+        if (pointsCount < 2) {
+            throw new IOException("Количество точек должно быть не менее 2");
+        }
+    }
+
+    private static void checkOrder(double[] xValues, int pointsCount) throws IOException {
+        for (int i = 1; i < pointsCount; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IOException("Точки не упорядочены по X");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+// Компактное представление точек для сериализации табулированных функций:
+// int - количество точек, затем пары double (x, y) в порядке big-endian -
+// те же байты, что дают writeInt и writeDouble. Точки копируются из хранилища
+// блоками и передаются в поток массивом байтов за один вызов на блок, без
+// объектов FunctionPoint и без покомпонентной записи
+final class TabulatedSerialization {
+    private static final int BLOCK_POINTS = 512;
+    private static final int POINT_BYTES = 2 * Double.BYTES;
+
+    private TabulatedSerialization() {
+    }
+
+    static void writePoints(TabulatedFunction function, DataOutput out) throws IOException {
+        int pointsCount = function.getPointsCount();
+        out.writeInt(pointsCount);
+
+        int blockSize = Math.min(pointsCount, BLOCK_POINTS);
+        double[] xValues = new double[blockSize];
+        double[] yValues = new double[blockSize];
+        double[] pairs = new double[2 * blockSize];
+        byte[] bytes = new byte[blockSize * POINT_BYTES];
+        DoubleBuffer doubles = ByteBuffer.wrap(bytes).asDoubleBuffer();
+
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int length = Math.min(blockSize, pointsCount - from);
+            function.copyPoints(from, xValues, yValues, 0, length);
+            for (int i = 0; i < length; i++) {
+                pairs[2 * i] = xValues[i];
+                pairs[2 * i + 1] = yValues[i];
+            }
+            doubles.clear();
+            doubles.put(pairs, 0, 2 * length);
+            out.write(bytes, 0, length * POINT_BYTES);
+        }
+    }
+
+    // Читает точки, записанные writePoints, и возвращает {xValues, yValues}
+    // длиной ровно в количество точек
+    static double[][] readPoints(DataInput in) throws IOException {
+        int pointsCount = in.readInt();
+        if (pointsCount < 2) {
+            throw new InvalidObjectException("Количество точек должно быть не менее 2");
+        }
+
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        int blockSize = Math.min(pointsCount, BLOCK_POINTS);
+        double[] pairs = new double[2 * blockSize];
+        byte[] bytes = new byte[blockSize * POINT_BYTES];
+        DoubleBuffer doubles = ByteBuffer.wrap(bytes).asDoubleBuffer();
+
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int length = Math.min(blockSize, pointsCount - from);
+            in.readFully(bytes, 0, length * POINT_BYTES);
+            doubles.clear();
+            doubles.get(pairs, 0, 2 * length);
+            for (int i = 0; i < length; i++) {
+                xValues[from + i] = pairs[2 * i];
+                yValues[from + i] = pairs[2 * i + 1];
+            }
+        }
+
+        for (int i = 1; i < pointsCount; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new InvalidObjectException("Точки не упорядочены по X");
+            }
+        }
+        return new double[][] {xValues, yValues};
+    }
+}
@@ -0,0 +1,272 @@
+package functions.tabulated;
+
+import java.math.BigInteger;
+
+// Запись double в текстовом формате табулированных функций прямо в массив
+// символов, без промежуточных строк. Цифры - кратчайшее десятичное
+// представление, однозначно восстанавливающее исходное число (алгоритм
+// Schubfach Р. Джулиетти); из нескольких кратчайших выбирается ближайшее.
+// Оформление как у Double.toString: при 10^-3 <= |v| < 10^7 обычная запись
+// с хотя бы одной цифрой после точки, иначе d.dddE[-]n; NaN, Infinity, -Infinity.
+// Любая запись читается TabulatedTextParser и Double.parseDouble
+final class TabulatedTextFormatter {
+    // Наибольшая длина записи: "-1.2345678901234567E-308"
+    static final int MAX_CHARS = 24;
+
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long T_MASK = C_MIN - 1;
+    private static final int BQ_MASK = 0x7FF;
+    private static final int C_TINY = 3;
+    private static final long MASK_63 = 0x7FFFFFFFFFFFFFFFL;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private TabulatedTextFormatter() {
+    }
+
+    // Записывает v в chars с позиции position и возвращает позицию за записью
+    static int format(double v, char[] chars, int position) {
+        long bits = Double.doubleToRawLongBits(v);
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        long t = bits & T_MASK;
+
+        if (bq == BQ_MASK) {
+            String special = t != 0 ? "NaN" : bits > 0 ? "Infinity" : "-Infinity";
+            special.getChars(0, special.length(), chars, position);
+            return position + special.length();
+        }
+        if (bits < 0) {
+            chars[position++] = '-';
+        }
+
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            // Целые числа до 2^53 записываются без поиска кратчайших цифр
+            if (0 < mq && mq < P) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return toChars(f, 0, chars, position);
+                }
+            }
+            return toDecimal(-mq, c, 0, chars, position);
+        }
+        if (t != 0) {
+            return t < C_TINY
+                    ? toDecimal(Q_MIN, 10 * t, -1, chars, position)
+                    : toDecimal(Q_MIN, t, 0, chars, position);
+        }
+        return toChars(0, 0, chars, position);
+    }
+
+    // Кратчайшее десятичное f * 10^e в интервале округления числа c * 2^q
+    private static int toDecimal(int q, long c, int dk, char[] chars, int position) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // Нижняя граница интервала ближе: c - степень двойки
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        int index = (k - PowersOfTen.K_MIN) << 1;
+        long g1 = PowersOfTen.G[index];
+        long g0 = PowersOfTen.G[index + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Попытка обойтись на одну цифру меньше
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toChars(upin ? sp10 : tp10, k, chars, position);
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return toChars(uin ? s : t, k + dk, chars, position);
+        }
+        long cmp = vb - ((s + t) << 1);
+        return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, chars, position);
+    }
+
+    // Округлённое к нечётному произведение g * cp / 2^127
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    // Запись f * 10^e по правилам Double.toString
+    private static int toChars(long f, int e, char[] chars, int position) {
+        if (f == 0) {
+            chars[position++] = '0';
+            chars[position++] = '.';
+            chars[position++] = '0';
+            return position;
+        }
+
+        // Цифры f без конечных нулей: значение = 0.d1d2...dn * 10^exponent
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int length = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+        if (f >= POWERS_OF_TEN[length]) {
+            length++;
+        }
+        int exponent = e + length;
+
+        if (0 < exponent && exponent <= 7) {
+            writeDigits(f, length, chars, position);
+            if (length > exponent) {
+                System.arraycopy(chars, position + exponent, chars, position + exponent + 1, length - exponent);
+                chars[position + exponent] = '.';
+                return position + length + 1;
+            }
+            position += length;
+            for (int i = length; i < exponent; i++) {
+                chars[position++] = '0';
+            }
+            chars[position++] = '.';
+            chars[position++] = '0';
+            return position;
+        }
+
+        if (-3 < exponent && exponent <= 0) {
+            chars[position++] = '0';
+            chars[position++] = '.';
+            for (int i = exponent; i < 0; i++) {
+                chars[position++] = '0';
+            }
+            writeDigits(f, length, chars, position);
+            return position + length;
+        }
+
+        // d.ddd: цифры пишутся со сдвигом на один символ, первая переносится перед точкой
+        writeDigits(f, length, chars, position + 1);
+        chars[position] = chars[position + 1];
+        chars[position + 1] = '.';
+        position += length + 1;
+        if (length == 1) {
+            chars[position++] = '0';
+        }
+
+        chars[position++] = 'E';
+        int scientific = exponent - 1;
+        if (scientific < 0) {
+            chars[position++] = '-';
+            scientific = -scientific;
+        }
+        if (scientific >= 100) {
+            chars[position++] = (char) ('0' + scientific / 100);
+            chars[position++] = (char) ('0' + scientific / 10 % 10);
+        } else if (scientific >= 10) {
+            chars[position++] = (char) ('0' + scientific / 10);
+        }
+        chars[position++] = (char) ('0' + scientific % 10);
+        return position;
+    }
+
+    // Десятичные цифры f (ровно length штук) в chars[at .. at + length),
+    // по две цифры за деление; старшая часть - в арифметике long, младшие
+    // восемь цифр - в int
+    private static void writeDigits(long f, int length, char[] chars, int at) {
+        int i = at + length;
+        if (f >= 100_000_000L) {
+            long high = f / 100_000_000L;
+            int low = (int) (f - high * 100_000_000L);
+            for (int n = 0; n < 4; n++) {
+                int pair = low % 100;
+                low /= 100;
+                chars[--i] = DIGIT_ONES[pair];
+                chars[--i] = DIGIT_TENS[pair];
+            }
+            f = high;
+        }
+        int rest = (int) f;
+        while (rest >= 100) {
+            int pair = rest % 100;
+            rest /= 100;
+            chars[--i] = DIGIT_ONES[pair];
+            chars[--i] = DIGIT_TENS[pair];
+        }
+        chars[--i] = DIGIT_ONES[rest];
+        if (rest >= 10) {
+            chars[--i] = DIGIT_TENS[rest];
+        }
+    }
+
+    // Для k от K_MIN до K_MAX: 10^-k = beta * 2^r, 2^125 <= beta < 2^126,
+    // g = floor(beta) + 1 хранится как старшие 63 бита и младшие 63 бита.
+    // Таблица строится при первой записи нецелого числа
+    private static final class PowersOfTen {
+        static final int K_MIN = -324;
+        static final int K_MAX = 292;
+        static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+        static {
+            BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+            for (int k = K_MIN; k <= K_MAX; k++) {
+                int e = -k;
+                int shift = 125 - flog2pow10(e);
+                BigInteger beta;
+                if (e >= 0) {
+                    BigInteger power = BigInteger.TEN.pow(e);
+                    beta = shift >= 0 ? power.shiftLeft(shift) : power.shiftRight(-shift);
+                } else {
+                    beta = BigInteger.ONE.shiftLeft(shift).divide(BigInteger.TEN.pow(-e));
+                }
+                BigInteger g = beta.add(BigInteger.ONE);
+                int index = (k - K_MIN) << 1;
+                G[index] = g.shiftRight(63).longValue();
+                G[index + 1] = g.and(mask63).longValue();
+            }
+        }
+    }
+}
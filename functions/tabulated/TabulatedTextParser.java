@@ -0,0 +1,356 @@
+package functions.tabulated;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+
+// Разбор текстового формата табулированных функций без промежуточных строк.
+// Лексемы те же, что у StreamTokenizer из TabulatedFunctions.createTokenizer:
+// слово - последовательность символов a-z, A-Z, 0-9, '.', '-', '_', '$', '[', ']'
+// и любых символов с кодом от 256; пробел, табуляция, '\n' и '\r' разделяют
+// лексемы; любой другой символ - отдельная лексема, не являющаяся словом.
+// Символы читаются блоками в переиспользуемый буфер, слово копируется в
+// переиспользуемый буфер лексемы, числа разбираются прямо из него.
+// Как и StreamTokenizer, после слова из потока забирается ровно один следующий
+// символ: если поток поддерживает mark, лишние прочитанные символы
+// возвращаются в finish(), иначе поток читается посимвольно
+final class TabulatedTextParser {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NEED_CHAR = -2;
+
+    // Степени десяти, точно представимые в double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Не более 15 значащих цифр: мантисса меньше 2^53 и точна в double
+    private static final int MAX_EXACT_DIGITS = 15;
+    // Не более 19 значащих цифр: мантисса помещается в 64 бита без знака
+    private static final int MAX_FAST_DIGITS = 19;
+
+    private static final boolean[] WORD_CHARS = new boolean[256];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) WORD_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) WORD_CHARS[c] = true;
+        for (char c = '0'; c <= '9'; c++) WORD_CHARS[c] = true;
+        WORD_CHARS['.'] = true;
+        WORD_CHARS['-'] = true;
+        WORD_CHARS['_'] = true;
+        WORD_CHARS['$'] = true;
+        WORD_CHARS['['] = true;
+        WORD_CHARS[']'] = true;
+    }
+
+    private final Reader in;
+    private final boolean markSupported;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    // Символ, прочитанный за словом (аналог peekc в StreamTokenizer)
+    private int peek = NEED_CHAR;
+
+    private char[] word = new char[64];
+    private int wordLength;
+    private boolean atEnd;
+
+    TabulatedTextParser(Reader in) {
+        this.in = in;
+        this.markSupported = in.markSupported();
+        this.buffer = new char[markSupported ? BUFFER_SIZE : 1];
+    }
+
+    private static boolean isWordChar(int c) {
+        return c >= 256 || WORD_CHARS[c];
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            if (eof) {
+                return -1;
+            }
+            if (markSupported) {
+                in.mark(buffer.length);
+            }
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                eof = true;
+                position = limit = 0;
+                return -1;
+            }
+            position = 0;
+            limit = n;
+        }
+        return buffer[position++];
+    }
+
+    // Следующая лексема. true - если это слово (оно доступно через
+    // parseInt/parseDouble/word), false - конец потока или одиночный символ
+    boolean nextWord() throws IOException {
+        int c = peek == NEED_CHAR ? read() : peek;
+        peek = NEED_CHAR;
+
+        while (c >= 0 && isWhitespace(c)) {
+            c = read();
+        }
+        if (c < 0 || !isWordChar(c)) {
+            wordLength = 0;
+            atEnd = c < 0;
+            return false;
+        }
+
+        int length = 0;
+        do {
+            if (length == word.length) {
+                char[] grown = new char[word.length * 2];
+                System.arraycopy(word, 0, grown, 0, length);
+                word = grown;
+            }
+            word[length++] = (char) c;
+            c = read();
+        } while (c >= 0 && isWordChar(c));
+
+        wordLength = length;
+        peek = c;
+        return true;
+    }
+
+    // true, если последний nextWord() вернул false из-за конца потока,
+    // а не из-за одиночного символа
+    boolean atEnd() {
+        return atEnd;
+    }
+
+    // Текущее слово в виде строки (только для сообщений об ошибках)
+    String word() {
+        return new String(word, 0, wordLength);
+    }
+
+    // Разбор текущего слова по правилам Integer.parseInt
+    int parseInt() {
+        int length = wordLength;
+        boolean negative = length > 1 && word[0] == '-';
+        int i = negative ? 1 : 0;
+
+        // Быстрый путь: до 9 десятичных ASCII-цифр, переполнение невозможно
+        if (length > i && length - i <= 9) {
+            int value = 0;
+            for (; i < length; i++) {
+                int digit = word[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return Integer.parseInt(word());
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+        return Integer.parseInt(word());
+    }
+
+    // Разбор текущего слова по правилам Double.parseDouble. Запись вида
+    // [-]цифры[.цифры][(e|E)[-]цифры] с не более чем 19 значащими цифрами
+    // переводится в double с корректным округлением без промежуточных строк;
+    // результат побитово совпадает с Double.parseDouble. Всё остальное
+    // (NaN, Infinity, шестнадцатеричная запись, суффиксы d/f, ошибки)
+    // передаётся в Double.parseDouble
+    double parseDouble() {
+        char[] s = word;
+        int length = wordLength;
+        int i = 0;
+
+        boolean negative = false;
+        if (i < length && s[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        // Значащие цифры как 64-битное число без знака и десятичный порядок
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0;
+        int scale = 0;
+
+        for (; i < length; i++) {
+            int digit = s[i] - '0';
+            if (digit < 0 || digit > 9) break;
+            digits++;
+            if (mantissa != 0 || digit != 0) {
+                if (++significant > MAX_FAST_DIGITS) return slowParseDouble();
+                mantissa = mantissa * 10 + digit;
+            }
+        }
+        if (i < length && s[i] == '.') {
+            i++;
+            for (; i < length; i++) {
+                int digit = s[i] - '0';
+                if (digit < 0 || digit > 9) break;
+                digits++;
+                scale--;
+                if (mantissa != 0 || digit != 0) {
+                    if (++significant > MAX_FAST_DIGITS) return slowParseDouble();
+                    mantissa = mantissa * 10 + digit;
+                }
+            }
+        }
+        if (digits == 0) {
+            return slowParseDouble();
+        }
+
+        if (i < length && (s[i] == 'e' || s[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && s[i] == '-') {
+                negativeExponent = true;
+                i++;
+            }
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; i < length; i++) {
+                int digit = s[i] - '0';
+                if (digit < 0 || digit > 9) break;
+                exponentDigits++;
+                if (exponent > 1000) return slowParseDouble();
+                exponent = exponent * 10 + digit;
+            }
+            if (exponentDigits == 0) {
+                return slowParseDouble();
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != length) {
+            return slowParseDouble();
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (significant <= MAX_EXACT_DIGITS && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            // Быстрый путь Клингера: одно умножение двух точных чисел
+            value = (double) mantissa * POWERS_OF_TEN[scale];
+        } else if (significant <= MAX_EXACT_DIGITS && scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = (double) mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            long bits = eiselLemire(mantissa, scale);
+            if (bits < 0) {
+                return slowParseDouble();
+            }
+            value = Double.longBitsToDouble(bits);
+        }
+        return negative ? -value : value;
+    }
+
+    // Алгоритм Эйзеля-Лемира: биты double, ближайшего к w * 10^q, по 128-битному
+    // приближению 5^q. Возвращает -1, если результат нельзя гарантировать
+    // (денормализованные числа, переполнение, редкие неоднозначные случаи)
+    private static long eiselLemire(long w, int q) {
+        if (q < PowersOfFive.MIN_EXPONENT || q > PowersOfFive.MAX_EXPONENT) {
+            return -1;
+        }
+
+        int leadingZeros = Long.numberOfLeadingZeros(w);
+        w <<= leadingZeros;
+
+        int index = 2 * (q - PowersOfFive.MIN_EXPONENT);
+        long high = PowersOfFive.TABLE[index];
+        long productLow = w * high;
+        long productHigh = unsignedMultiplyHigh(w, high);
+
+        // Младшие биты старшего слова все единичные - нужна вторая половина множителя
+        final long precisionMask = 0xFFFFFFFFFFFFFFFFL >>> 55;
+        if ((productHigh & precisionMask) == precisionMask) {
+            long secondHigh = unsignedMultiplyHigh(w, PowersOfFive.TABLE[index + 1]);
+            productLow += secondHigh;
+            if (Long.compareUnsigned(secondHigh, productLow) > 0) {
+                productHigh++;
+            }
+            if (productLow == -1L && (q < -27 || q > 55)) {
+                return -1;
+            }
+        }
+
+        int upperBit = (int) (productHigh >>> 63);
+        long mantissa = productHigh >>> (upperBit + 64 - 52 - 3);
+        int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperBit - leadingZeros + 1023;
+        if (power2 <= 0) {
+            return -1;
+        }
+
+        // Ровно посередине между двумя double: округление к чётному
+        if (Long.compareUnsigned(productLow, 1) <= 0 && q >= -4 && q <= 23 &&
+                (mantissa & 3) == 1 && (mantissa << (upperBit + 64 - 52 - 3)) == productHigh) {
+            mantissa &= ~1L;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << 52)) {
+            mantissa = 1L << 52;
+            power2++;
+        }
+        mantissa &= ~(1L << 52);
+        if (power2 >= 0x7FF) {
+            return -1;
+        }
+        return mantissa | ((long) power2 << 52);
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    // 128-битные нормализованные приближения 5^q для q от -342 до 308
+    // (старшие 64 бита, затем младшие). Для q < 0 значение округлено вверх.
+    // Таблица строится при первом обращении к длинной мантиссе
+    private static final class PowersOfFive {
+        static final int MIN_EXPONENT = -342;
+        static final int MAX_EXPONENT = 308;
+        static final long[] TABLE = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+
+        static {
+            BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+            BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+                BigInteger value;
+                if (q < 0) {
+                    BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+                    int z = power5.subtract(BigInteger.ONE).bitLength();
+                    int b = q >= -27 ? z + 127 : 2 * z + 128;
+                    value = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+                } else {
+                    value = BigInteger.valueOf(5).pow(q);
+                    value = value.shiftLeft(Math.max(0, 128 - value.bitLength()));
+                }
+                while (value.compareTo(two128) >= 0) {
+                    value = value.shiftRight(1);
+                }
+                int index = 2 * (q - MIN_EXPONENT);
+                TABLE[index] = value.shiftRight(64).longValue();
+                TABLE[index + 1] = value.and(mask64).longValue();
+            }
+        }
+    }
+
+    private double slowParseDouble() {
+        return Double.parseDouble(word());
+    }
+
+    // Возвращает в поток символы, прочитанные сверх забранных токенизатором
+    void finish() throws IOException {
+        if (markSupported && position < limit) {
+            in.reset();
+            long toSkip = position;
+            while (toSkip > 0) {
+                long skipped = in.skip(toSkip);
+                if (skipped <= 0) break;
+                toSkip -= skipped;
+            }
+            position = limit;
+        }
+    }
+}
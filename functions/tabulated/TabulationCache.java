@@ -0,0 +1,249 @@
+package functions.tabulated;
+
+import functions.*;
+import functions.basic.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Кэш результатов табулирования. Ключ - функция (или заданный вызывающим
+// структурный ключ), отрезок и количество точек; значение - неизменяемый
+// снимок ImmutableTabulatedFunction, который безопасно разделять между
+// всеми получателями и потоками.
+//
+// Объём кэша ограничен оценкой занимаемой снимками памяти: при превышении
+// вытесняются давно не запрашивавшиеся снимки (LRU). Табулирование
+// выполняется вне блокировки, поэтому медленная функция не задерживает
+// обращения к другим ключам; если два потока одновременно промахнулись по
+// одному ключу, в кэше остаётся и обоим возвращается первый из снимков.
+//
+// Ключом по умолчанию служит сама функция. Базовые функции (Sin, Cos, Tan,
+// Exp, Log) сравниваются по классу и параметрам, любые другие функции - по
+// ссылке, даже если у них есть собственный equals: у табулированных функций
+// он сравнивает все точки за O(n) и меняется вместе с ними, так что
+// изменённый источник нельзя было бы ни найти, ни удалить из кэша. Для
+// составных функций, создаваемых заново при каждом обращении, следует
+// передавать структурный ключ; ключ-функция сравнивается по тем же правилам
+public final class TabulationCache {
+    // Оценка памяти снимка помимо координат: объект, ключ, запись в таблице
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+    // Заголовок двух массивов блока координат и ссылки на них
+    private static final long CHUNK_OVERHEAD_BYTES = 48;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public TabulationCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    // ==================== ТАБУЛИРОВАНИЕ ====================
+
+    public ImmutableTabulatedFunction tabulate(Function f, double leftX, double rightX, int pointsCount) {
+        return tabulate(f, f, leftX, rightX, pointsCount);
+    }
+
+    // key определяет функцию так же, как f: равные ключи должны означать
+    // функции с одинаковыми значениями
+    public ImmutableTabulatedFunction tabulate(Object key, Function f, double leftX, double rightX, int pointsCount) {
+        if (key == null) {
+            throw new IllegalArgumentException("Ключ не может быть null");
+        }
+        Key cacheKey = new Key(keyOf(key), leftX, rightX, pointsCount);
+
+        synchronized (this) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null) {
+                hits++;
+                return entry.function;
+            }
+            misses++;
+        }
+
+        ImmutableTabulatedFunction function = compute(f, leftX, rightX, pointsCount);
+        Entry entry = new Entry(function, estimateBytes(pointsCount));
+        if (entry.bytes > maxBytes) {
+            // Снимок больше всего кэша: возвращается без сохранения
+            return function;
+        }
+
+        synchronized (this) {
+            Entry existing = entries.putIfAbsent(cacheKey, entry);
+            if (existing != null) {
+                return existing.function;
+            }
+            bytes += entry.bytes;
+            evict();
+        }
+        return function;
+    }
+
+    // Вычисление в точках leftX + i * step с теми же проверками и сообщениями,
+    // что у TabulatedFunctions.tabulate
+    private static ImmutableTabulatedFunction compute(Function f, double leftX, double rightX, int pointsCount) {
+        TabulatedFunctions.checkTabulationArguments(f, leftX, rightX, pointsCount);
+        return new ImmutableTabulatedFunction(leftX, rightX,
+                TabulatedFunctions.evaluateGrid(f, leftX, rightX, pointsCount));
+    }
+
+    // Функции, кроме базовых, сравниваются по ссылке
+    private static Object keyOf(Object key) {
+        if (key instanceof Function && !(key instanceof TrigonometricFunction
+                || key instanceof Exp || key instanceof Log)) {
+            return new IdentityKey(key);
+        }
+        return key;
+    }
+
+    private static long estimateBytes(int pointsCount) {
+        long chunks = (pointsCount + ImmutableTabulatedFunction.CHUNK_SIZE - 1) / ImmutableTabulatedFunction.CHUNK_SIZE;
+        return 2L * Double.BYTES * pointsCount + CHUNK_OVERHEAD_BYTES * chunks + ENTRY_OVERHEAD_BYTES;
+    }
+
+    // Вытесняет записи в порядке давности обращения, пока объём не уложится в предел
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().bytes;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    // ==================== УПРАВЛЕНИЕ ====================
+
+    // Удаляет все снимки по ключу (функции) независимо от отрезка и числа точек
+    public synchronized int invalidate(Object key) {
+        Object function = keyOf(key);
+        int removed = 0;
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().function.equals(function)) {
+                bytes -= entry.getValue().bytes;
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    // ==================== СТАТИСТИКА ====================
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Оценка памяти, занятой снимками в кэше
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Снимков: %d, %.1f из %.1f МБ; попаданий %d, промахов %d, вытеснений %d",
+                entries.size(), bytes / 1e6, maxBytes / 1e6, hits, misses, evictions);
+    }
+
+    // ==================== КЛЮЧ И ЗАПИСЬ ====================
+
+    private static final class Key {
+        final Object function;
+        final double leftX;
+        final double rightX;
+        final int pointsCount;
+
+        Key(Object function, double leftX, double rightX, int pointsCount) {
+            this.function = function;
+            this.leftX = leftX;
+            this.rightX = rightX;
+            this.pointsCount = pointsCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key) o;
+            return pointsCount == other.pointsCount
+                    && Double.compare(leftX, other.leftX) == 0
+                    && Double.compare(rightX, other.rightX) == 0
+                    && function.equals(other.function);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(function, leftX, rightX, pointsCount);
+        }
+    }
+
+    // Ключ, равный только самому себе: функция сравнивается по ссылке
+    private static final class IdentityKey {
+        final Object function;
+
+        IdentityKey(Object function) {
+            this.function = function;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).function == function;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(function);
+        }
+    }
+
+    private static final class Entry {
+        final ImmutableTabulatedFunction function;
+        final long bytes;
+
+        Entry(ImmutableTabulatedFunction function, long bytes) {
+            this.function = function;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package functions.tabulated;
+
+import functions.*;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+// Табулированная функция на равномерной сетке: хранит только левую границу,
+// шаг и массив значений Y, а отрезок для интерполяции вычисляет арифметически
+// за O(1). Если изменение X нарушает равномерность, функция переходит на
+// неравномерное представление PrimitiveArrayTabulatedFunction и дальше
+// делегирует ему все операции
+public class UniformGridTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final double EPS = 1e-10;
+
+    private double leftX;
+    private double step;
+    private double[] yValues;
+    private int pointsCount;
+
+    // Неравномерное представление; null, пока сетка равномерна
+    private PrimitiveArrayTabulatedFunction fallback;
+
+    public UniformGridTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.leftX = leftX;
+        this.step = (rightX - leftX) / (pointsCount - 1);
+        this.pointsCount = pointsCount;
+        this.yValues = new double[pointsCount + 10];
+    }
+
+    public UniformGridTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values.length);
+        System.arraycopy(values, 0, yValues, 0, values.length);
+    }
+
+    public UniformGridTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        double[] xValues = new double[points.length];
+        double[] yValues = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xValues[i] = points[i].getX();
+            yValues[i] = points[i].getY();
+        }
+        init(xValues, yValues);
+    }
+
+    public UniformGridTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues.length != yValues.length) {
+            throw new IllegalArgumentException("Массивы X и Y должны быть одинаковой длины");
+        }
+        if (xValues.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        init(xValues, yValues);
+    }
+
+    private void init(double[] xValues, double[] yValues) {
+        for (int i = 1; i < xValues.length; i++) {
+            if (xValues[i] <= xValues[i - 1]) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по X");
+            }
+        }
+
+        if (isUniform(xValues, xValues.length)) {
+            this.leftX = xValues[0];
+            this.step = (xValues[xValues.length - 1] - xValues[0]) / (xValues.length - 1);
+            this.pointsCount = xValues.length;
+            this.yValues = Arrays.copyOf(yValues, xValues.length + 10);
+        } else {
+            this.fallback = new PrimitiveArrayTabulatedFunction(xValues, yValues);
+        }
+    }
+
+    // Проверяет, что X совпадают с leftX + i * step побитово, т.е. равномерное
+    // представление воспроизводит точки без потерь
+    public static boolean isUniform(double[] xValues, int count) {
+        if (count < 2) {
+            return false;
+        }
+        double left = xValues[0];
+        double step = (xValues[count - 1] - left) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            if (left + i * step != xValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Сохраняет ли функция равномерное представление (для диагностики)
+    public boolean isUniform() {
+        return fallback == null;
+    }
+
+    private void switchToFallback() {
+        double[] xValues = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = leftX + i * step;
+        }
+        fallback = new PrimitiveArrayTabulatedFunction(xValues, Arrays.copyOf(yValues, pointsCount));
+        yValues = null;
+    }
+
+    @Override
+    public String toString() {
+        if (fallback != null) return fallback.toString();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(String.format("(%.2f; %.2f)", leftX + i * step, yValues[i]));
+        }
+
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        if (fallback != null) return fallback.equals(o);
+
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction other = (TabulatedFunction) o;
+
+        if (this.pointsCount != other.getPointsCount()) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (Math.abs(leftX + i * step - other.getPointX(i)) >= EPS ||
+                    Math.abs(yValues[i] - other.getPointY(i)) >= EPS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (fallback != null) return fallback.hashCode();
+
+        int hash = pointsCount;
+
+        // XOR хэш-кодов всех точек, согласованный с остальными реализациями
+        for (int i = 0; i < pointsCount; i++) {
+            hash ^= FunctionPoint.hashCode(leftX + i * step, yValues[i]);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        UniformGridTabulatedFunction cloned = (UniformGridTabulatedFunction) super.clone();
+        if (fallback != null) {
+            cloned.fallback = (PrimitiveArrayTabulatedFunction) fallback.clone();
+        } else {
+            cloned.yValues = yValues.clone();
+        }
+        return cloned;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        if (fallback != null) return fallback.getLeftDomainBorder();
+        return leftX;
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        if (fallback != null) return fallback.getRightDomainBorder();
+        return leftX + (pointsCount - 1) * step;
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        if (fallback != null) return fallback.getFunctionValue(x);
+
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        // Номер отрезка вычисляется напрямую и уточняется на случай ошибок округления
+        int i = (int) ((x - leftX) / step);
+        if (i > pointsCount - 2) i = pointsCount - 2;
+        while (i > 0 && leftX + i * step > x) i--;
+        while (i < pointsCount - 2 && leftX + (i + 1) * step < x) i++;
+
+        double x0 = leftX + i * step;
+        double x1 = leftX + (i + 1) * step;
+
+        // Те же правила совпадения в пределах eps, что и в ArrayTabulatedFunction
+        int ceiling = x0 >= x ? i : i + 1;
+        if (ceiling > 0 && Math.abs(leftX + (ceiling - 1) * step - x) <= EPS) {
+            return yValues[ceiling - 1];
+        }
+        if (Math.abs(leftX + ceiling * step - x) <= EPS || ceiling == 0) {
+            return yValues[ceiling];
+        }
+
+        return yValues[i] + (yValues[i + 1] - yValues[i]) * (x - x0) / (x1 - x0);
+    }
+
+    @Override
+    public int getPointsCount() {
+        if (fallback != null) return fallback.getPointsCount();
+        return pointsCount;
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) {
+        if (fallback != null) return fallback.getPoint(index);
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                    "Индекс " + index + " вне границ [0, " + (pointsCount - 1) + "]"
+            );
+        }
+        return new FunctionPoint(leftX + index * step, yValues[index]);
+    }
+
+    @Override
+    public void setPoint(int index, FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        if (fallback == null) {
+            if (index < 0 || index >= pointsCount) {
+                throw new FunctionPointIndexOutOfBoundsException();
+            }
+            if (point.getX() == leftX + index * step) {
+                yValues[index] = point.getY();
+                return;
+            }
+            checkOrder(index, point.getX());
+            switchToFallback();
+        }
+        fallback.setPoint(index, point);
+    }
+
+    @Override
+    public double getPointX(int index) {
+        if (fallback != null) return fallback.getPointX(index);
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+        return leftX + index * step;
+    }
+
+    @Override
+    public void setPointX(int index, double x)
+            throws InappropriateFunctionPointException {
+
+        if (fallback == null) {
+            if (index < 0 || index >= pointsCount) {
+                throw new FunctionPointIndexOutOfBoundsException();
+            }
+            if (x == leftX + index * step) {
+                return;
+            }
+            checkOrder(index, x);
+            switchToFallback();
+        }
+        fallback.setPointX(index, x);
+    }
+
+    // Проверка порядка до перехода на неравномерное представление, чтобы
+    // ошибочный вызов не менял внутреннее состояние
+    private void checkOrder(int index, double x) throws InappropriateFunctionPointException {
+        if ((index > 0 && x <= leftX + (index - 1) * step) ||
+                (index < pointsCount - 1 && x >= leftX + (index + 1) * step)) {
+            throw new InappropriateFunctionPointException("Нарушение порядка точек по X");
+        }
+    }
+
+    @Override
+    public double getPointY(int index) {
+        if (fallback != null) return fallback.getPointY(index);
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+        return yValues[index];
+    }
+
+    @Override
+    public void setPointY(int index, double y) {
+        if (fallback != null) {
+            fallback.setPointY(index, y);
+            return;
+        }
+
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException();
+        }
+        yValues[index] = y;
+    }
+
+    @Override
+    public void deletePoint(int index) {
+        if (fallback == null) {
+            if (pointsCount < 3) {
+                throw new IllegalStateException("Нельзя удалить точку: останется меньше 2 точек");
+            }
+            if (index < 0 || index >= pointsCount) {
+                throw new FunctionPointIndexOutOfBoundsException();
+            }
+            // Удаление последней точки сохраняет равномерность сетки
+            if (index == pointsCount - 1) {
+                pointsCount--;
+                return;
+            }
+            switchToFallback();
+        }
+        fallback.deletePoint(index);
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point)
+            throws InappropriateFunctionPointException {
+
+        if (fallback == null) {
+            double x = point.getX();
+            // Точка, продолжающая сетку вправо, сохраняет равномерность
+            if (x == leftX + pointsCount * step) {
+                if (pointsCount == yValues.length) {
+                    yValues = Arrays.copyOf(yValues, yValues.length * 2);
+                }
+                yValues[pointsCount++] = point.getY();
+                return;
+            }
+            checkNewX(x);
+            switchToFallback();
+        }
+        fallback.addPoint(point);
+    }
+
+    @Override
+    public void addPoints(FunctionPoint[] points)
+            throws InappropriateFunctionPointException {
+
+        if (points.length == 0) {
+            return;
+        }
+        if (fallback == null) {
+            for (FunctionPoint point : TabulatedFunction.sortedDistinct(points)) {
+                checkNewX(point.getX());
+            }
+            switchToFallback();
+        }
+        fallback.addPoints(points);
+    }
+
+    // Проверка совпадения X с узлом сетки до перехода на неравномерное
+    // представление, как в checkOrder: ошибочное добавление не должно
+    // оставлять функцию в неравномерном представлении
+    private void checkNewX(double x) throws InappropriateFunctionPointException {
+        int nearest = (int) Math.max(0, Math.min(pointsCount - 1, Math.floor((x - leftX) / step)));
+        for (int i = Math.max(0, nearest - 1); i <= Math.min(pointsCount - 1, nearest + 1); i++) {
+            if (Math.abs(leftX + i * step - x) < EPS) {
+                throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+            }
+        }
+    }
+
+    @Override
+    public void copyPoints(int from, double[] xValues, double[] yValues, int offset, int length) {
+        if (fallback != null) {
+            fallback.copyPoints(from, xValues, yValues, offset, length);
+            return;
+        }
+
+        Objects.checkFromIndexSize(from, length, pointsCount);
+        Objects.checkFromIndexSize(offset, length, xValues.length);
+        Objects.checkFromIndexSize(offset, length, yValues.length);
+
+        for (int i = 0; i < length; i++) {
+            xValues[offset + i] = leftX + (from + i) * step;
+        }
+        System.arraycopy(this.yValues, from, yValues, offset, length);
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        if (fallback != null) return fallback.iterator();
+
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("Следующая точка не существует");
+                }
+                FunctionPoint point = new FunctionPoint(leftX + currentIndex * step, yValues[currentIndex]);
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Операция удаления не поддерживается");
+            }
+        };
+    }
+
+    // Фабрика выбирает равномерное представление, когда сетка равномерна,
+    // и PrimitiveArrayTabulatedFunction в остальных случаях
+    public static class UniformGridTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new UniformGridTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new UniformGridTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            double[] xValues = new double[points.length];
+            double[] yValues = new double[points.length];
+            for (int i = 0; i < points.length; i++) {
+                xValues[i] = points[i].getX();
+                yValues[i] = points[i].getY();
+            }
+            return createTabulatedFunction(xValues, yValues);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double[] xValues, double[] yValues) {
+            if (isUniform(xValues, xValues.length)) {
+                return new UniformGridTabulatedFunction(xValues, yValues);
+            }
+            return new PrimitiveArrayTabulatedFunction(xValues, yValues);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package functions.tabulated;
+
+import functions.*;
+
+// Публикация версий табулированной функции для схемы «много читателей, редкие
+// записи». Читатели берут текущий снимок через get() без блокировок и работают
+// с ним сколько угодно: снимок неизменяем и не меняется под ними. Писатели
+// выполняют пакет изменений и атомарно публикуют новый снимок; пакеты
+// разных писателей выполняются по очереди
+public class VersionedTabulatedFunction {
+    private volatile ImmutableTabulatedFunction current;
+
+    // Пакет изменений, применяемый к редактору очередной версии
+    @FunctionalInterface
+    public interface Update {
+        void apply(ImmutableTabulatedFunction.Editor editor) throws InappropriateFunctionPointException;
+    }
+
+    public VersionedTabulatedFunction(TabulatedFunction initial) {
+        this.current = ImmutableTabulatedFunction.copyOf(initial);
+    }
+
+    // Текущий опубликованный снимок
+    public ImmutableTabulatedFunction get() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    // Применяет пакет к текущему снимку и публикует результат. Если пакет
+    // завершился исключением, текущая версия не меняется
+    public synchronized ImmutableTabulatedFunction update(Update update) throws InappropriateFunctionPointException {
+        ImmutableTabulatedFunction.Editor editor = current.edit();
+        update.apply(editor);
+        ImmutableTabulatedFunction next = editor.build();
+        current = next;
+        return next;
+    }
+}
